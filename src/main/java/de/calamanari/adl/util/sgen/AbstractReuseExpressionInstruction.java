@@ -22,9 +22,9 @@ package de.calamanari.adl.util.sgen;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
+import java.util.random.RandomGenerator;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,7 +59,7 @@ public abstract class AbstractReuseExpressionInstruction implements TemplateInst
      * Returns a list of independent variations of the inputExpression after applying one of the references
      */
     protected List<SampleExpression> applyInternal(SampleExpression inputExpression, int maxVariations) {
-        Random rand = GenDataUtils.createRandomWithSeed(inputExpression);
+        RandomGenerator rand = GenDataUtils.createRandomGenerator(inputExpression);
         List<SampleExpression> res = new ArrayList<>();
 
         List<SampleExpression> refExpressions = pickUniqueExpressions(filter.apply(baseListSupplier.get()), rand, Math.max(maxVariations, 1));
@@ -111,31 +111,23 @@ public abstract class AbstractReuseExpressionInstruction implements TemplateInst
     }
 
     /**
-     * Picks one of the patterns randomly
-     * 
-     * @param patterns not null, not empty
-     * @param rand for making a random decising
-     * @return one of the expressions or null if there is none
+     * By default any previously generated expression is eligible for reuse, so this instruction depends on every group.
      */
-    private static List<SampleExpression> pickUniqueExpressions(List<SampleExpression> expressions, Random rand, int max) {
-
-        if (expressions.isEmpty()) {
-            return Collections.emptyList();
-        }
-        else if (expressions.size() == 1 || expressions.size() <= max) {
-            return expressions;
-        }
-        else {
-            List<SampleExpression> res = new ArrayList<>();
-            List<SampleExpression> availableExpressions = new ArrayList<>(expressions);
-            for (int i = 0; i < max; i++) {
-                SampleExpression value = availableExpressions.get(rand.nextInt(availableExpressions.size()));
-                res.add(value);
-                availableExpressions.remove(value);
-            }
+    @Override
+    public boolean dependsOn(GenInstructionGroup group) {
+        return true;
+    }
 
-            return res;
-        }
+    /**
+     * Picks up to max of the expressions randomly
+     * 
+     * @param expressions candidates
+     * @param rand for making a random decision
+     * @param max maximum number of expressions to pick
+     * @return list of expressions, empty if there are no candidates
+     */
+    private static List<SampleExpression> pickUniqueExpressions(List<SampleExpression> expressions, RandomGenerator rand, int max) {
+        return GenDataUtils.pickUnique(expressions, max, rand);
     }
 
 }
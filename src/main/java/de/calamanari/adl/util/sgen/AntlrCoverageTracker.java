@@ -0,0 +1,361 @@
+//@formatter:off
+/*
+ * AntlrCoverageTracker
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNState;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.atn.RuleTransition;
+import org.antlr.v4.runtime.atn.Transition;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import de.calamanari.adl.AdlException;
+import de.calamanari.adl.antlr.AudlangLexer;
+import de.calamanari.adl.antlr.AudlangParser;
+
+/**
+ * The {@link AntlrCoverageTracker} parses inputs and records which parts of the grammar they exercise, so we can tell what a set of samples covers and what
+ * not.
+ * <p>
+ * A parse listener reports the features visible in the parse tree:
+ * <ul>
+ * <li><code>rule:</code><i>rule</i> - the rule was entered</li>
+ * <li><code>call:</code><i>caller</i><code>@</code><i>state</i><code>&gt;</code><i>callee</i> - the rule reference at the given ATN state was followed
+ * (each reference to a rule in the grammar is a separate call site)</li>
+ * <li><code>token:</code><i>rule</i><code>&gt;</code><i>token</i> - the rule matched a token of the given type (alternatives of lexer tokens)</li>
+ * <li><code>path:</code><i>grandparent</i><code>&gt;</code><i>parent</i><code>&gt;</code><i>rule</i> - combinations of nested rules</li>
+ * </ul>
+ * Additionally, a tracking ATN-simulator records the alternatives chosen by adaptive prediction (decisions not decidable by the next token) as
+ * <code>decision:</code><i>number</i><code>@</code><i>rule</i><code>=</code><i>alternative</i>.
+ * <p>
+ * Features of inputs that could not be parsed get the prefix <code>error:</code>, so they do not mix with the coverage of valid inputs.
+ * <p>
+ * Instances are not thread-safe.
+ * <p>
+ * <b>Note:</b> The ANTLR runtime (<code>org.antlr:antlr4-runtime</code>) is a <i>provided</i> dependency of this library, it does not come transitively.
+ * Callers must put it on the classpath to use this class.
+ * 
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+public class AntlrCoverageTracker {
+
+    public static final String RULE_PREFIX = "rule:";
+
+    public static final String CALL_PREFIX = "call:";
+
+    public static final String TOKEN_PREFIX = "token:";
+
+    public static final String PATH_PREFIX = "path:";
+
+    public static final String DECISION_PREFIX = "decision:";
+
+    public static final String ERROR_PREFIX = "error:";
+
+    private final Class<? extends Lexer> lexerClass;
+
+    private final Class<? extends Parser> parserClass;
+
+    private final Method startRuleMethod;
+
+    /**
+     * number of inputs that covered a feature
+     */
+    private final Map<String, Long> featureCounts = new TreeMap<>();
+
+    private String[] ruleNames;
+
+    private ATN atn;
+
+    /**
+     * Creates a tracker for the {@link AudlangParser} starting with the rule <code>query</code>
+     */
+    public AntlrCoverageTracker() {
+        this(AudlangLexer.class, AudlangParser.class, "query");
+    }
+
+    /**
+     * @param lexerClass generated lexer with a public constructor taking a {@link CharStream}
+     * @param parserClass generated parser with a public constructor taking a {@link TokenStream}
+     * @param startRuleName name of the rule to start parsing with
+     */
+    public AntlrCoverageTracker(Class<? extends Lexer> lexerClass, Class<? extends Parser> parserClass, String startRuleName) {
+        this.lexerClass = lexerClass;
+        this.parserClass = parserClass;
+        try {
+            this.startRuleMethod = parserClass.getMethod(startRuleName);
+        }
+        catch (NoSuchMethodException | RuntimeException ex) {
+            throw new AdlException(String.format("Could not resolve start rule '%s' on parser %s", startRuleName, parserClass), ex);
+        }
+    }
+
+    /**
+     * Parses the given input and records its coverage
+     * 
+     * @param input text to be parsed
+     * @return features covered by this input
+     */
+    public Set<String> track(String input) {
+        Lexer lexer = createInstance(lexerClass, CharStream.class);
+        ErrorFlagListener errorListener = new ErrorFlagListener();
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(errorListener);
+        lexer.setInputStream(CharStreams.fromString(input));
+
+        Parser parser = createInstance(parserClass, TokenStream.class);
+        if (ruleNames == null) {
+            ruleNames = parser.getRuleNames();
+            atn = parser.getATN();
+        }
+        Set<String> features = new HashSet<>();
+        parser.setInterpreter(new DecisionTrackingATNSimulator(parser, features));
+        parser.removeErrorListeners();
+        parser.addErrorListener(errorListener);
+        parser.addParseListener(new CoverageListener(ruleNames, parser.getVocabulary(), features));
+        parser.setTokenStream(new CommonTokenStream(lexer));
+
+        try {
+            startRuleMethod.invoke(parser);
+        }
+        catch (InvocationTargetException | IllegalAccessException | RuntimeException ex) {
+            throw new AdlException(String.format("Could not execute start rule '%s' on parser", startRuleMethod.getName()), ex);
+        }
+
+        if (errorListener.error) {
+            features = features.stream().map(feature -> ERROR_PREFIX + feature).collect(Collectors.toSet());
+        }
+        features.forEach(feature -> featureCounts.merge(feature, 1L, Long::sum));
+        return features;
+    }
+
+    /**
+     * @return probe for a {@link CoverageGuidedSampleSelector} that tracks the sample's expression
+     */
+    public Function<SampleExpression, Set<String>> createCoverageProbe() {
+        return sample -> track(sample.expression());
+    }
+
+    /**
+     * @return number of inputs that covered a feature
+     */
+    public Map<String, Long> getFeatureCounts() {
+        return Collections.unmodifiableMap(featureCounts);
+    }
+
+    /**
+     * @return all rules of the grammar not entered by any successfully parsed input
+     */
+    public Set<String> getUncoveredRules() {
+        return uncovered(allRuleFeatures());
+    }
+
+    /**
+     * @return all rule references (call sites) of the grammar not followed by any successfully parsed input
+     */
+    public Set<String> getUncoveredCallSites() {
+        return uncovered(allCallSiteFeatures());
+    }
+
+    private Set<String> uncovered(Set<String> allFeatures) {
+        Set<String> res = new TreeSet<>(allFeatures);
+        res.removeAll(featureCounts.keySet());
+        return res;
+    }
+
+    /**
+     * @return all rule features, empty if nothing has been tracked, yet
+     */
+    public Set<String> allRuleFeatures() {
+        Set<String> res = new TreeSet<>();
+        if (ruleNames != null) {
+            for (String ruleName : ruleNames) {
+                res.add(RULE_PREFIX + ruleName);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @return all call site features of the ATN, empty if nothing has been tracked, yet
+     */
+    public Set<String> allCallSiteFeatures() {
+        Set<String> res = new TreeSet<>();
+        if (atn != null) {
+            for (ATNState state : atn.states) {
+                for (Transition transition : state.getTransitions()) {
+                    if (transition instanceof RuleTransition ruleTransition) {
+                        res.add(callSiteFeature(ruleNames[state.ruleIndex], state.stateNumber, ruleNames[ruleTransition.target.ruleIndex]));
+                    }
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @return summary of the rule and call site coverage
+     */
+    public String createReport() {
+        Set<String> allRules = allRuleFeatures();
+        Set<String> allCallSites = allCallSiteFeatures();
+        List<String> features = featureCounts.keySet().stream().filter(feature -> !feature.startsWith(ERROR_PREFIX)).toList();
+        return String.format("rules: %d/%d, call sites: %d/%d, decision alternatives: %d, token features: %d, path features: %d%nuncovered rules: %s%n"
+                + "uncovered call sites: %s", allRules.size() - getUncoveredRules().size(), allRules.size(),
+                allCallSites.size() - getUncoveredCallSites().size(), allCallSites.size(), count(features, DECISION_PREFIX), count(features, TOKEN_PREFIX),
+                count(features, PATH_PREFIX), getUncoveredRules(), getUncoveredCallSites());
+    }
+
+    /**
+     * @param <T> lexer or parser type
+     * @param resultClass generated lexer or parser
+     * @param argumentClass type of the single constructor argument
+     * @return new instance created with a null-argument (the input gets set later)
+     */
+    private static <T> T createInstance(Class<T> resultClass, Class<?> argumentClass) {
+        try {
+            Constructor<T> constructor = resultClass.getConstructor(argumentClass);
+            return constructor.newInstance((Object) null);
+        }
+        catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException | RuntimeException ex) {
+            throw new AdlException(String.format("Could not create an instance of %s with single argument %s", resultClass, argumentClass), ex);
+        }
+    }
+
+    private static long count(List<String> features, String prefix) {
+        return features.stream().filter(feature -> feature.startsWith(prefix)).count();
+    }
+
+    private static String callSiteFeature(String callerRuleName, int invokingState, String calleeRuleName) {
+        return CALL_PREFIX + callerRuleName + "@" + invokingState + ">" + calleeRuleName;
+    }
+
+    /**
+     * Records the alternative chosen for each decision that requires adaptive prediction
+     */
+    private static class DecisionTrackingATNSimulator extends ParserATNSimulator {
+
+        private final Set<String> features;
+
+        private final String[] ruleNames;
+
+        DecisionTrackingATNSimulator(Parser parser, Set<String> features) {
+            super(parser, parser.getATN(), parser.getInterpreter().decisionToDFA, parser.getInterpreter().getSharedContextCache());
+            this.features = features;
+            this.ruleNames = parser.getRuleNames();
+        }
+
+        @Override
+        public int adaptivePredict(TokenStream input, int decision, ParserRuleContext outerContext) {
+            int alternative = super.adaptivePredict(input, decision, outerContext);
+            features.add(DECISION_PREFIX + decision + "@" + ruleNames[atn.decisionToState.get(decision).ruleIndex] + "=" + alternative);
+            return alternative;
+        }
+
+    }
+
+    /**
+     * Records rules, call sites, tokens and rule paths while parsing
+     */
+    private static class CoverageListener implements ParseTreeListener {
+
+        private final String[] ruleNames;
+
+        private final Vocabulary vocabulary;
+
+        private final Set<String> features;
+
+        CoverageListener(String[] ruleNames, Vocabulary vocabulary, Set<String> features) {
+            this.ruleNames = ruleNames;
+            this.vocabulary = vocabulary;
+            this.features = features;
+        }
+
+        @Override
+        public void visitTerminal(TerminalNode node) {
+            if (node.getParent() instanceof ParserRuleContext parent) {
+                features.add(TOKEN_PREFIX + ruleNames[parent.getRuleIndex()] + ">" + vocabulary.getDisplayName(node.getSymbol().getType()));
+            }
+        }
+
+        @Override
+        public void visitErrorNode(ErrorNode node) {
+            // not of interest
+        }
+
+        @Override
+        public void enterEveryRule(ParserRuleContext ctx) {
+            String ruleName = ruleNames[ctx.getRuleIndex()];
+            features.add(RULE_PREFIX + ruleName);
+            ParserRuleContext parent = ctx.getParent();
+            if (parent != null) {
+                String parentRuleName = ruleNames[parent.getRuleIndex()];
+                features.add(callSiteFeature(parentRuleName, ctx.invokingState, ruleName));
+                ParserRuleContext grandParent = parent.getParent();
+                if (grandParent != null) {
+                    features.add(PATH_PREFIX + ruleNames[grandParent.getRuleIndex()] + ">" + parentRuleName + ">" + ruleName);
+                }
+            }
+        }
+
+        @Override
+        public void exitEveryRule(ParserRuleContext ctx) {
+            // not of interest
+        }
+
+    }
+
+    private static class ErrorFlagListener extends BaseErrorListener {
+
+        private boolean error = false;
+
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String msg, RecognitionException e) {
+            error = true;
+        }
+
+    }
+
+}
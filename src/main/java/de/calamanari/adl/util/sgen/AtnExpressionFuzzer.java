@@ -0,0 +1,520 @@
+//@formatter:off
+/*
+ * AtnExpressionFuzzer
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNState;
+import org.antlr.v4.runtime.atn.AtomTransition;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.atn.RuleStopState;
+import org.antlr.v4.runtime.atn.RuleTransition;
+import org.antlr.v4.runtime.atn.SetTransition;
+import org.antlr.v4.runtime.atn.Transition;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.calamanari.adl.AdlException;
+import de.calamanari.adl.antlr.AudlangLexer;
+import de.calamanari.adl.antlr.AudlangParser;
+
+/**
+ * The {@link AtnExpressionFuzzer} creates random Audlang expressions independent from any templates by walking the ATN of the {@link AudlangParser}: starting
+ * with the <code>query</code> rule it follows randomly chosen transitions, descends into referenced rules and emits a random text for every token on its
+ * way.
+ * <p>
+ * The <b>maximum depth</b> limits the nesting of parentheses, the <b>maximum number of tokens</b> the size. Once a limit has been reached, the walk only
+ * follows the transitions requiring the fewest additional parentheses resp. tokens to complete the expression (pre-computed over the ATN), so limits can be
+ * exceeded where the grammar leaves no choice (e.g., the parentheses of a list).
+ * <p>
+ * Every valid expression is followed by a variant with a single {@link TokenMutation}. The validity of each sample is computed by running the parser, it is
+ * never assumed.
+ * <p>
+ * All random decisions are derived from a seed and the index of the sample, so the output does not depend on the order of execution and
+ * {@link #stream(long, long)} can be processed in parallel.
+ * <p>
+ * Instances are immutable and thread-safe.
+ * <p>
+ * <b>Note:</b> The ANTLR runtime (<code>org.antlr:antlr4-runtime</code>) is a <i>provided</i> dependency of this library, it does not come transitively.
+ * Callers must put it on the classpath to use this class. Besides the {@link AntlrCoverageTracker}, this is the only class of the generator package that
+ * depends on ANTLR.
+ * 
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+public class AtnExpressionFuzzer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AtnExpressionFuzzer.class);
+
+    /**
+     * Number of attempts to create a valid expression before giving up
+     */
+    private static final int MAX_ATTEMPTS = 100;
+
+    /**
+     * cost of a state from which the end of the rule cannot be reached
+     */
+    private static final int UNREACHABLE = Integer.MAX_VALUE / 4;
+
+    private static final String[] KEYWORDS = new String[] { "AND", "OR", "STRICT", "NOT", "IS", "ANY", "OF", "BETWEEN", "CONTAINS", "CURB", "UNKNOWN" };
+
+    private static final String[] WHITESPACE_PATTERNS = new String[] { " ", " ", " ", " ", "  ", "\t", "\n", "\r\n", " \t " };
+
+    private static final String[] PLAIN_TEXT_PATTERNS = new String[] { "color", "shape", "argName", "x", "a.b", "user-id", "snake_case", "äöü", "€uro",
+            "taste#1", "Σ", "1st", "3.14", "all", "none", "andy", "order", "nothing" };
+
+    private static final String[] QUOTED_TEXT_PATTERNS = new String[] { "hello world", "AND", "a \"\"quoted\"\" text", "(", "x = 1", "ünïcödé", " ", "@arg",
+            "/* no comment */", "\"\"" };
+
+    private static final String[] COMMENT_PATTERNS = new String[] { "", " ", " comment ", "*", " ( AND ) ", "/" };
+
+    private static final ATN ATN_INSTANCE = AudlangParser._ATN;
+
+    private static final int START_RULE_INDEX = AudlangParser.RULE_query;
+
+    /**
+     * token type of the opening parenthesis
+     */
+    private static final int OPENING_PARENTHESIS_TYPE = resolveLiteralTokenType("'('");
+
+    /**
+     * token type of the closing parenthesis
+     */
+    private static final int CLOSING_PARENTHESIS_TYPE = resolveLiteralTokenType("')'");
+
+    /**
+     * per ATN-state the minimum number of tokens to reach the end of its rule
+     */
+    private static final int[] MIN_TOKENS = computeMinCosts(false);
+
+    /**
+     * per ATN-state the minimum number of opening parentheses to reach the end of its rule
+     */
+    private static final int[] MIN_OPENING_PARENTHESES = computeMinCosts(true);
+
+    /**
+     * maximum nesting depth of parentheses (where avoidable)
+     */
+    private final int maxDepth;
+
+    /**
+     * maximum number of tokens (where avoidable)
+     */
+    private final int maxTokens;
+
+    /**
+     * @param maxDepth maximum nesting depth of parentheses (where avoidable), &gt;= 0
+     * @param maxTokens maximum number of tokens including whitespace and comments (where avoidable), &gt;= 1
+     */
+    public AtnExpressionFuzzer(int maxDepth, int maxTokens) {
+        if (maxDepth < 0 || maxTokens < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Expecting maxDepth >= 0 and maxTokens >= 1, given: maxDepth=%d, maxTokens=%d", maxDepth, maxTokens));
+        }
+        this.maxDepth = maxDepth;
+        this.maxTokens = maxTokens;
+    }
+
+    /**
+     * Creates count valid expressions, each followed by a mutated variant.
+     * <p>
+     * The stream is sequential, call {@link Stream#parallel()} to use all cores, the samples will be the same.
+     * 
+     * @param seed base for all random decisions
+     * @param count number of valid expressions
+     * @return stream with 2 * count samples
+     */
+    public Stream<SampleExpression> stream(long seed, long count) {
+        return LongStream.range(0, count).mapToObj(sampleIdx -> createSamples(seed, sampleIdx)).flatMap(List::stream);
+    }
+
+    /**
+     * Creates count valid expressions and their mutated variants as two groups, compatible with the template-based samples.
+     * 
+     * @param groupNamePrefix the group names will be the prefix plus <code>-valid</code> resp. <code>-mutated</code>
+     * @param seed base for all random decisions
+     * @param count number of valid expressions
+     * @return list with the group of the valid expressions and the group of the mutated expressions
+     */
+    public List<SampleExpressionGroup> createGroups(String groupNamePrefix, long seed, int count) {
+        List<List<SampleExpression>> samples = LongStream.range(0, count).parallel().mapToObj(sampleIdx -> createSamples(seed, sampleIdx)).toList();
+        return Arrays.asList(new SampleExpressionGroup(groupNamePrefix + "-valid", samples.stream().map(pair -> pair.get(0)).toList()),
+                new SampleExpressionGroup(groupNamePrefix + "-mutated", samples.stream().map(pair -> pair.get(1)).toList()));
+    }
+
+    /**
+     * @param seed base for all random decisions
+     * @param sampleIdx index of the sample
+     * @return valid expression and its mutated variant
+     */
+    private List<SampleExpression> createSamples(long seed, long sampleIdx) {
+        String id = "fuzz_" + Long.toHexString(GenDataUtils.fastHashLong(Long.toString(seed), Long.toString(sampleIdx)));
+        SplittableRandom rand = new SplittableRandom(GenDataUtils.fastHashLong(id));
+
+        List<FuzzedToken> tokens = createValidTokens(id, rand);
+        String expression = joinTokens(tokens);
+        SampleExpression validSample = new SampleExpression(id, String.format("fuzzed expression (depth=%d, tokens=%d)",
+                StressCorpusStatistics.nestingDepth(expression), tokens.size()), expression, false);
+
+        return Arrays.asList(validSample, createMutatedSample(id, tokens, rand));
+    }
+
+    /**
+     * @param id of the sample for logging
+     * @param rand source of randomness
+     * @return tokens of a valid expression
+     */
+    private List<FuzzedToken> createValidTokens(String id, SplittableRandom rand) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            List<FuzzedToken> tokens = walk(rand);
+            // the walk cannot foresee how the lexer splits the emitted texts, so the parser has the final say
+            if (isValidExpression(joinTokens(tokens))) {
+                return tokens;
+            }
+            LOGGER.debug("Discarding rejected expression of sample {}: {}", id, joinTokens(tokens));
+        }
+        throw new AdlException(String.format("Unable to create a valid expression for sample %s after %d attempts.", id, MAX_ATTEMPTS));
+    }
+
+    /**
+     * @param id of the valid sample
+     * @param tokens of the valid expression
+     * @param rand source of randomness
+     * @return sample with a single token mutation
+     */
+    private static SampleExpression createMutatedSample(String id, List<FuzzedToken> tokens, SplittableRandom rand) {
+        List<Integer> significantTokenIndexes = new ArrayList<>();
+        for (int idx = 0; idx < tokens.size(); idx++) {
+            if (tokens.get(idx).isSignificant()) {
+                significantTokenIndexes.add(idx);
+            }
+        }
+        List<TokenMutation> candidates = Arrays.stream(TokenMutation.values())
+                .filter(mutation -> mutation.getMinTokenCount() <= significantTokenIndexes.size()).toList();
+        TokenMutation mutation = candidates.get(rand.nextInt(candidates.size()));
+
+        int pos = rand.nextInt(significantTokenIndexes.size() - mutation.getMinTokenCount() + 1);
+        int tokenIdx = significantTokenIndexes.get(pos);
+        int otherTokenIdx = significantTokenIndexes.get(pos + mutation.getMinTokenCount() - 1);
+
+        String expression = String.join("", mutation.apply(tokens.stream().map(FuzzedToken::text).toList(), tokenIdx, otherTokenIdx));
+
+        return new SampleExpression(id + "_" + mutation.name().toLowerCase(), String.format("fuzzed expression, %s of token %d", mutation.name().toLowerCase(),
+                tokenIdx), expression, !isValidExpression(expression));
+    }
+
+    /**
+     * Walks the ATN from the start rule to its end
+     * 
+     * @param rand source of randomness
+     * @return tokens of the expression
+     */
+    private List<FuzzedToken> walk(SplittableRandom rand) {
+        List<FuzzedToken> tokens = new ArrayList<>();
+        Deque<ATNState> followStates = new ArrayDeque<>();
+        int depth = 0;
+        ATNState state = ATN_INSTANCE.ruleToStartState[START_RULE_INDEX];
+        while (!(state instanceof RuleStopState && followStates.isEmpty())) {
+            if (state instanceof RuleStopState) {
+                state = followStates.pop();
+                continue;
+            }
+            Transition transition = chooseTransition(state, depth >= maxDepth, tokens.size() >= maxTokens, rand);
+            if (transition instanceof RuleTransition ruleTransition) {
+                followStates.push(ruleTransition.followState);
+            }
+            else if (!transition.isEpsilon()) {
+                int tokenType = chooseTokenType(transition, rand);
+                if (tokenType != Token.EOF) {
+                    tokens.add(new FuzzedToken(tokenType, createTokenText(tokenType, rand)));
+                    depth = depth + (tokenType == OPENING_PARENTHESIS_TYPE ? 1 : 0) - (tokenType == CLOSING_PARENTHESIS_TYPE ? 1 : 0);
+                }
+            }
+            state = transition.target;
+        }
+        return tokens;
+    }
+
+    /**
+     * @param state current state
+     * @param depthLimitReached if true, only the transitions with the fewest opening parentheses will be considered
+     * @param sizeLimitReached if true, only the transitions with the fewest tokens will be considered
+     * @param rand source of randomness
+     * @return next transition
+     */
+    private static Transition chooseTransition(ATNState state, boolean depthLimitReached, boolean sizeLimitReached, SplittableRandom rand) {
+        int numberOfTransitions = state.getNumberOfTransitions();
+        if (numberOfTransitions == 1) {
+            return state.transition(0);
+        }
+        List<Transition> candidates = new ArrayList<>(Arrays.asList(state.getTransitions()));
+        if (depthLimitReached) {
+            retainCheapest(candidates, MIN_OPENING_PARENTHESES, true);
+        }
+        if (sizeLimitReached) {
+            retainCheapest(candidates, MIN_TOKENS, false);
+        }
+        return candidates.get(rand.nextInt(candidates.size()));
+    }
+
+    /**
+     * @param candidates to be reduced to the ones with the lowest cost
+     * @param minCosts pre-computed costs per state
+     * @param countParentheses true to count opening parentheses, false to count tokens
+     */
+    private static void retainCheapest(List<Transition> candidates, int[] minCosts, boolean countParentheses) {
+        int minCost = candidates.stream().mapToInt(transition -> costOf(transition, minCosts, countParentheses)).min().orElse(0);
+        candidates.removeIf(transition -> costOf(transition, minCosts, countParentheses) > minCost);
+    }
+
+    /**
+     * @param transition to be taken
+     * @param minCosts pre-computed costs per state
+     * @param countParentheses true to count opening parentheses, false to count tokens
+     * @return minimum cost to reach the end of the current rule when taking the given transition
+     */
+    private static int costOf(Transition transition, int[] minCosts, boolean countParentheses) {
+        if (transition instanceof RuleTransition ruleTransition) {
+            return Math.min(UNREACHABLE, minCosts[ruleTransition.target.stateNumber] + minCosts[ruleTransition.followState.stateNumber]);
+        }
+        int cost = 0;
+        if (!transition.isEpsilon()) {
+            if (countParentheses) {
+                cost = transition.label().contains(OPENING_PARENTHESIS_TYPE) ? 1 : 0;
+            }
+            else {
+                cost = transition.label().contains(Token.EOF) ? 0 : 1;
+            }
+        }
+        return Math.min(UNREACHABLE, cost + minCosts[transition.target.stateNumber]);
+    }
+
+    /**
+     * Computes the costs to reach the end of the rule from every state by iterating until nothing changes anymore
+     * 
+     * @param countParentheses true to count opening parentheses, false to count tokens
+     * @return costs per state number
+     */
+    private static int[] computeMinCosts(boolean countParentheses) {
+        int[] res = new int[ATN_INSTANCE.states.size()];
+        Arrays.fill(res, UNREACHABLE);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (ATNState state : ATN_INSTANCE.states) {
+                if (state == null) {
+                    continue;
+                }
+                int cost = UNREACHABLE;
+                if (state instanceof RuleStopState) {
+                    cost = 0;
+                }
+                else {
+                    for (Transition transition : state.getTransitions()) {
+                        cost = Math.min(cost, costOf(transition, res, countParentheses));
+                    }
+                }
+                if (cost < res[state.stateNumber]) {
+                    res[state.stateNumber] = cost;
+                    changed = true;
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @param transition token-matching transition
+     * @param rand source of randomness
+     * @return token type
+     */
+    private static int chooseTokenType(Transition transition, SplittableRandom rand) {
+        if (transition instanceof AtomTransition atomTransition) {
+            return atomTransition.label;
+        }
+        else if (transition instanceof SetTransition setTransition && !setTransition.set.isNil()) {
+            List<Integer> tokenTypes = setTransition.set.toList();
+            return tokenTypes.get(rand.nextInt(tokenTypes.size()));
+        }
+        throw new AdlException("Unsupported transition in parser ATN: " + transition);
+    }
+
+    /**
+     * @param tokenType type of the token to be created
+     * @param rand source of randomness
+     * @return random text that will be recognized as a token of the given type
+     */
+    private static String createTokenText(int tokenType, SplittableRandom rand) {
+        return switch (tokenType) {
+        case AudlangParser.WHITESPACE -> pick(WHITESPACE_PATTERNS, rand);
+        case AudlangParser.AND, AudlangParser.OR, AudlangParser.STRICT, AudlangParser.NOT, AudlangParser.IS, AudlangParser.ANY, AudlangParser.OF,
+                AudlangParser.BETWEEN, AudlangParser.CONTAINS, AudlangParser.CURB, AudlangParser.UNKNOWN ->
+            randomCase(AudlangParser.VOCABULARY.getSymbolicName(tokenType), rand);
+        case AudlangParser.INTEGER_GTE_0 -> rand.nextInt(5) == 0 ? "0" : String.valueOf(rand.nextInt(1, 1_000_000));
+        case AudlangParser.TEXT_PLAIN -> pick(PLAIN_TEXT_PATTERNS, rand) + (rand.nextBoolean() ? "" : String.valueOf(rand.nextInt(100)));
+        case AudlangParser.TEXT_IN_DOUBLE_QUOTES -> "\"" + pick(QUOTED_TEXT_PATTERNS, rand) + "\"";
+        case AudlangParser.TEXT_EMPTY -> "\"\"";
+        case AudlangParser.MATCH_ALL -> "<" + randomCase("ALL", rand) + ">";
+        case AudlangParser.MATCH_NONE -> "<" + randomCase("NONE", rand) + ">";
+        case AudlangParser.COMMENT -> "/*" + pick(COMMENT_PATTERNS, rand) + "*/";
+        default -> literalTextOf(tokenType);
+        };
+    }
+
+    /**
+     * @param tokenType type of an implicitly defined token (e.g., <code>'('</code>)
+     * @return literal text
+     */
+    private static String literalTextOf(int tokenType) {
+        String literalName = AudlangParser.VOCABULARY.getLiteralName(tokenType);
+        if (literalName == null || literalName.length() < 3) {
+            throw new AdlException("Unable to create text for token type " + tokenType);
+        }
+        return literalName.substring(1, literalName.length() - 1);
+    }
+
+    /**
+     * @param literalName quoted literal as in the grammar
+     * @return token type
+     */
+    private static int resolveLiteralTokenType(String literalName) {
+        for (int tokenType = 0; tokenType <= AudlangParser.VOCABULARY.getMaxTokenType(); tokenType++) {
+            if (literalName.equals(AudlangParser.VOCABULARY.getLiteralName(tokenType))) {
+                return tokenType;
+            }
+        }
+        throw new AdlException("Unknown literal token: " + literalName);
+    }
+
+    private static String pick(String[] patterns, SplittableRandom rand) {
+        return patterns[rand.nextInt(patterns.length)];
+    }
+
+    /**
+     * @param keyword upper case keyword
+     * @param rand source of randomness
+     * @return keyword in upper case (50%), lower case (25%) or mixed case (25%)
+     */
+    private static String randomCase(String keyword, SplittableRandom rand) {
+        int mode = rand.nextInt(4);
+        if (mode < 2) {
+            return keyword;
+        }
+        else if (mode == 2) {
+            return keyword.toLowerCase();
+        }
+        StringBuilder sb = new StringBuilder(keyword.length());
+        for (int idx = 0; idx < keyword.length(); idx++) {
+            char ch = keyword.charAt(idx);
+            sb.append(rand.nextBoolean() ? Character.toLowerCase(ch) : ch);
+        }
+        return sb.toString();
+    }
+
+    private static String joinTokens(List<FuzzedToken> tokens) {
+        return tokens.stream().map(FuzzedToken::text).collect(Collectors.joining());
+    }
+
+    /**
+     * Determines whether the given expression is valid Audlang by running the lexer and the parser.
+     * <p>
+     * The parser first runs in the fast SLL-mode and only falls back to full LL-prediction if SLL fails.
+     * 
+     * @param expression to be checked
+     * @return true if the expression could be parsed without any error
+     */
+    public static boolean isValidExpression(String expression) {
+        AudlangLexer lexer = new AudlangLexer(CharStreams.fromString(expression));
+        LexerErrorListener lexerErrorListener = new LexerErrorListener();
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(lexerErrorListener);
+        CommonTokenStream tokenStream = new CommonTokenStream(lexer);
+        tokenStream.fill();
+        if (lexerErrorListener.error) {
+            return false;
+        }
+        AudlangParser parser = new AudlangParser(tokenStream);
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        try {
+            parser.query();
+            return true;
+        }
+        catch (ParseCancellationException _) {
+            tokenStream.seek(0);
+            parser.reset();
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        }
+        try {
+            parser.query();
+            return true;
+        }
+        catch (ParseCancellationException _) {
+            return false;
+        }
+    }
+
+    /**
+     * @param type token type
+     * @param text token text
+     */
+    private static record FuzzedToken(int type, String text) {
+
+        /**
+         * @return true if the token is neither whitespace nor a comment
+         */
+        boolean isSignificant() {
+            return type != AudlangParser.WHITESPACE && type != AudlangParser.COMMENT;
+        }
+
+    }
+
+    /**
+     * Records whether the lexer has seen any unrecognizable input
+     */
+    private static class LexerErrorListener extends BaseErrorListener {
+
+        private boolean error = false;
+
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String msg, RecognitionException e) {
+            error = true;
+        }
+
+    }
+
+}
@@ -0,0 +1,213 @@
+//@formatter:off
+/*
+ * CoverageGuidedSampleSelector
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link CoverageGuidedSampleSelector} generates samples and only keeps the ones that cover anything not covered by the samples kept before.
+ * <p>
+ * What a sample covers is determined by a <i>coverage probe</i>, usually a parser run that reports the grammar rules, alternatives and decisions it has
+ * passed. The probe does not need to be aware of templates or groups, it maps a sample to a set of feature names.
+ * <p>
+ * The first round executes the plan as it is. Every further round uses a different {@link GenerationSettings#seedSalt()}, reduces the fan-out of all
+ * templates that did not contribute anything new in the previous round to a minimum and doubles the fan-out of the templates that did (starting again from
+ * the fan-out in the plan if a template had been reduced before). This way the generation focuses on the templates still finding uncovered features (e.g.,
+ * rare combinations), until a round brings no new feature or the maximum number of rounds has been reached.
+ * <p>
+ * Steering works through the fan-out of the templates: the rounds can only reach features some template is able to produce, so the selection usually
+ * covers what the regular output of the plan covers with far fewer samples, plus what the extra variations of the productive templates add. Alternatives
+ * no template produces remain uncovered. To reach them, {@link #selectAdditional(Stream)} probes samples from any other source (e.g., an
+ * {@link AtnExpressionFuzzer}) and keeps those covering features the templates did not.
+ * <p>
+ * Instances are not thread-safe.
+ * 
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+public class CoverageGuidedSampleSelector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CoverageGuidedSampleSelector.class);
+
+    /**
+     * plan to be executed
+     */
+    private final GenInstructionPlan plan;
+
+    /**
+     * maps a sample to the features it covers
+     */
+    private final Function<SampleExpression, ? extends Collection<String>> coverageProbe;
+
+    /**
+     * features covered by the samples selected so far
+     */
+    private final Set<String> coveredFeatures = new HashSet<>();
+
+    /**
+     * number of samples generated (and probed) so far
+     */
+    private long generatedSampleCount = 0;
+
+    /**
+     * @param plan to be executed
+     * @param coverageProbe maps a sample to the features it covers, not null
+     */
+    public CoverageGuidedSampleSelector(GenInstructionPlan plan, Function<SampleExpression, ? extends Collection<String>> coverageProbe) {
+        if (plan == null || coverageProbe == null) {
+            throw new IllegalArgumentException(String.format("Arguments must not be null, given: plan=%s, coverageProbe=%s", plan, coverageProbe));
+        }
+        this.plan = plan;
+        this.coverageProbe = coverageProbe;
+    }
+
+    /**
+     * Generates samples in rounds and returns the ones that covered new features, grouped like the plan.
+     * 
+     * @param maxRounds maximum number of rounds, &gt;= 1
+     * @return selected samples by group (plan order, groups without any selected sample are omitted)
+     */
+    public List<SampleExpressionGroup> select(int maxRounds) {
+        if (maxRounds < 1) {
+            throw new IllegalArgumentException("maxRounds must be >= 1, given: " + maxRounds);
+        }
+
+        Map<String, List<SampleExpression>> selectedSamplesByGroup = new LinkedHashMap<>();
+        plan.groups().forEach(group -> selectedSamplesByGroup.put(group.group(), new ArrayList<>()));
+
+        GenInstructionPlan roundPlan = plan;
+        for (int round = 0; round < maxRounds; round++) {
+            Set<String> productiveTemplateIds = new HashSet<>();
+            new SampleExpressionSpliterator(roundPlan).forEachRemaining(sample -> probe(sample, selectedSamplesByGroup, productiveTemplateIds));
+            LOGGER.debug("Round {}: {} productive templates, {} features covered by {} samples", round, productiveTemplateIds.size(), coveredFeatures.size(),
+                    selectedSamplesByGroup.values().stream().mapToInt(List::size).sum());
+            if (productiveTemplateIds.isEmpty()) {
+                break;
+            }
+            roundPlan = plan.withGenerationSettings(createNextRoundSettings(roundPlan.generationSettings(), productiveTemplateIds, round + 1));
+        }
+
+        List<SampleExpressionGroup> res = new ArrayList<>();
+        selectedSamplesByGroup.forEach((group, samples) -> {
+            if (!samples.isEmpty()) {
+                res.add(new SampleExpressionGroup(group, samples));
+            }
+        });
+        return res;
+    }
+
+    /**
+     * Probes the given samples from any source (e.g., an {@link AtnExpressionFuzzer}) and returns the ones that cover features not covered so far.
+     * <p>
+     * This complements {@link #select(int)} with expression shapes no template produces, the features covered by the returned samples count as covered
+     * afterwards.
+     * 
+     * @param candidates samples to be probed in order, must be finite
+     * @return selected samples in the order of the candidates
+     */
+    public List<SampleExpression> selectAdditional(Stream<SampleExpression> candidates) {
+        List<SampleExpression> res = new ArrayList<>();
+        candidates.sequential().forEach(sample -> {
+            if (probe(sample)) {
+                res.add(sample);
+            }
+        });
+        LOGGER.debug("Additional samples: {} features covered by {} more samples", coveredFeatures.size(), res.size());
+        return res;
+    }
+
+    /**
+     * Runs the probe on the given sample and keeps it if it covers anything new
+     * 
+     * @param sample generated sample
+     * @param selectedSamplesByGroup target
+     * @param productiveTemplateIds collects the templates with samples covering new features
+     */
+    private void probe(SampleExpression sample, Map<String, List<SampleExpression>> selectedSamplesByGroup, Set<String> productiveTemplateIds) {
+        if (probe(sample)) {
+            selectedSamplesByGroup.get(sample.generationInfo().group).add(sample);
+            String templateId = GeneratedSampleRegistry.templateIdOf(sample);
+            if (templateId != null) {
+                productiveTemplateIds.add(templateId);
+            }
+        }
+    }
+
+    /**
+     * Runs the probe on the given sample and records the features it covers
+     * 
+     * @param sample to be probed
+     * @return true if the sample covers anything new
+     */
+    private boolean probe(SampleExpression sample) {
+        generatedSampleCount++;
+        boolean newCoverage = false;
+        for (String feature : coverageProbe.apply(sample)) {
+            newCoverage = coveredFeatures.add(feature) || newCoverage;
+        }
+        return newCoverage;
+    }
+
+    /**
+     * The limit of a productive template gets doubled, starting from its limit in the plan if it was reduced before, so a template that becomes productive
+     * again gets at least twice its original fan-out. All other templates get reduced to a minimum.
+     * 
+     * @param previousSettings settings of the previous round
+     * @param productiveTemplateIds templates with samples covering new features in the previous round
+     * @param round next round
+     * @return settings that focus on the productive templates
+     */
+    GenerationSettings createNextRoundSettings(GenerationSettings previousSettings, Set<String> productiveTemplateIds, int round) {
+        Map<String, Integer> templateVariationCountLimits = new HashMap<>();
+        for (String templateId : productiveTemplateIds) {
+            int baseLimit = Math.max(1, Math.max(previousSettings.variationCountLimit(templateId), plan.generationSettings().variationCountLimit(templateId)));
+            templateVariationCountLimits.put(templateId, baseLimit > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : baseLimit * 2);
+        }
+        return new GenerationSettings(0, templateVariationCountLimits, previousSettings.maxListSize(), previousSettings.unlimitedOutputLimit(),
+                plan.generationSettings().seedSalt() + round);
+    }
+
+    /**
+     * @return features covered by the samples selected so far
+     */
+    public Set<String> getCoveredFeatures() {
+        return Collections.unmodifiableSet(coveredFeatures);
+    }
+
+    /**
+     * @return number of samples generated (and probed) so far, including the ones passed to {@link #selectAdditional(Stream)}
+     */
+    public long getGeneratedSampleCount() {
+        return generatedSampleCount;
+    }
+
+}
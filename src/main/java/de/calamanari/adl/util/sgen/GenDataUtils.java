@@ -23,7 +23,10 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
 
 import de.calamanari.adl.AdlException;
 
@@ -43,6 +46,26 @@ public class GenDataUtils {
      */
     private static final ThreadLocal<MessageDigest> DIGEST_HOLDER = ThreadLocal.withInitial(() -> GenDataUtils.getSha1MessageDigestInstance("SHA-1"));
 
+    /**
+     * Thread-local holder for the seed strategy of the plan currently being executed by this thread
+     */
+    private static final ThreadLocal<SeedStrategy> SEED_STRATEGY_HOLDER = ThreadLocal.withInitial(() -> SeedStrategy.SHA1);
+
+    /**
+     * Thread-local holder for the generation settings of the plan currently being executed by this thread
+     */
+    private static final ThreadLocal<GenerationSettings> GENERATION_SETTINGS_HOLDER = ThreadLocal.withInitial(() -> GenerationSettings.DEFAULT);
+
+    /**
+     * FNV-1a 64-bit offset basis
+     */
+    private static final long FAST_HASH_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    /**
+     * FNV-1a 64-bit prime
+     */
+    private static final long FAST_HASH_PRIME = 0x100000001b3L;
+
     static final MessageDigest getSha1MessageDigestInstance(String digestName) {
         try {
             return MessageDigest.getInstance(digestName);
@@ -103,6 +126,8 @@ public class GenDataUtils {
      * Creates a new random instance based on a hash of the given {@link SampleExpression#expression()} text.<br>
      * This avoids the problem of a global random instance with side effects and dependency on execution order when creating a random selection of values from a
      * list.
+     * <p>
+     * This method always applies {@link SeedStrategy#SHA1}, see also {@link #createRandomGenerator(SampleExpression)}.
      * 
      * @param inputExpression current input expression
      * @return random instance
@@ -111,14 +136,125 @@ public class GenDataUtils {
         return createRandomWithSeed(inputExpression.id() + inputExpression.expression());
     }
 
+    /**
+     * Creates a new random generator based on the given expression's id and text using the seed strategy of the current execution (default:
+     * {@link SeedStrategy#SHA1}) and the {@link GenerationSettings#seedSalt()} of the current execution (default: none).
+     * 
+     * @param inputExpression current input expression
+     * @return random generator
+     */
+    public static RandomGenerator createRandomGenerator(SampleExpression inputExpression) {
+        return SEED_STRATEGY_HOLDER.get().createRandom(GENERATION_SETTINGS_HOLDER.get().saltedSeedId(inputExpression.id()), inputExpression.expression());
+    }
+
+    /**
+     * Picks the given number of distinct elements randomly, the algorithm depends on the current thread's {@link SeedStrategy}, see
+     * {@link SeedStrategy#isCompatibleSampling()}.
+     * 
+     * @param <T> element type
+     * @param candidates not null
+     * @param count number of elements to pick
+     * @param rand for making random decisions
+     * @return list with the picked elements, the candidates list itself if count &gt;= size
+     */
+    public static <T> List<T> pickUnique(List<T> candidates, int count, RandomGenerator rand) {
+        if (SEED_STRATEGY_HOLDER.get().isCompatibleSampling()) {
+            return SamplingUtils.pickUniqueCompatible(candidates, count, rand);
+        }
+        return SamplingUtils.pickUnique(candidates, count, rand);
+    }
+
+    /**
+     * Orders all candidates randomly, the algorithm depends on the current thread's {@link SeedStrategy}, see {@link SeedStrategy#isCompatibleSampling()}.
+     * 
+     * @param <T> element type
+     * @param candidates not null
+     * @param rand for making random decisions
+     * @return new list with all candidates in random order
+     */
+    public static <T> List<T> shuffle(List<T> candidates, RandomGenerator rand) {
+        if (SEED_STRATEGY_HOLDER.get().isCompatibleSampling()) {
+            return SamplingUtils.shuffleCompatible(candidates, rand);
+        }
+        return SamplingUtils.shuffle(candidates, rand);
+    }
+
+    /**
+     * Runs the given operation with the given seed strategy for all random generators created by the current thread via
+     * {@link #createRandomGenerator(SampleExpression)}.
+     * 
+     * @param <T> result type
+     * @param seedStrategy strategy to be applied, null means {@link SeedStrategy#SHA1}
+     * @param operation to be executed
+     * @return result of the operation
+     */
+    public static <T> T callWithSeedStrategy(SeedStrategy seedStrategy, Supplier<T> operation) {
+        return callWithSettings(seedStrategy, GENERATION_SETTINGS_HOLDER.get(), operation);
+    }
+
+    /**
+     * Runs the given operation with the given seed strategy and generation settings for all instructions executed by the current thread, see also
+     * {@link #callWithSeedStrategy(SeedStrategy, Supplier)}.
+     * 
+     * @param <T> result type
+     * @param seedStrategy strategy to be applied, null means {@link SeedStrategy#SHA1}
+     * @param generationSettings settings to be applied, null means {@link GenerationSettings#DEFAULT}
+     * @param operation to be executed
+     * @return result of the operation
+     */
+    public static <T> T callWithSettings(SeedStrategy seedStrategy, GenerationSettings generationSettings, Supplier<T> operation) {
+        SeedStrategy previousSeedStrategy = SEED_STRATEGY_HOLDER.get();
+        GenerationSettings previousGenerationSettings = GENERATION_SETTINGS_HOLDER.get();
+        SEED_STRATEGY_HOLDER.set(seedStrategy == null ? SeedStrategy.SHA1 : seedStrategy);
+        GENERATION_SETTINGS_HOLDER.set(generationSettings == null ? GenerationSettings.DEFAULT : generationSettings);
+        try {
+            return operation.get();
+        }
+        finally {
+            SEED_STRATEGY_HOLDER.set(previousSeedStrategy);
+            GENERATION_SETTINGS_HOLDER.set(previousGenerationSettings);
+        }
+    }
+
+    /**
+     * @return generation settings of the plan currently being executed by this thread (default: {@link GenerationSettings#DEFAULT})
+     */
+    public static GenerationSettings getGenerationSettings() {
+        return GENERATION_SETTINGS_HOLDER.get();
+    }
+
+    /**
+     * Computes a 64-bit non-cryptographic hash (FNV-1a over the characters, murmur3-finalizer) of the given values without concatenating them.
+     * <p>
+     * The length of each value is included, so ("ab", "c") and ("a", "bc") lead to different hashes.
+     * 
+     * @param values strings to be hashed, nulls are treated like empty strings
+     * @return hash-value
+     */
+    public static long fastHashLong(String... values) {
+        long hash = FAST_HASH_OFFSET_BASIS;
+        for (String value : values) {
+            int len = (value == null) ? 0 : value.length();
+            for (int i = 0; i < len; i++) {
+                hash = (hash ^ value.charAt(i)) * FAST_HASH_PRIME;
+            }
+            hash = (hash ^ len) * FAST_HASH_PRIME;
+        }
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
     private GenDataUtils() {
         // utility methods
     }
 
     /**
-     * removes the cached digest
+     * removes the cached digest, the current seed strategy and generation settings
      */
     public static void cleanup() {
         DIGEST_HOLDER.remove();
+        SEED_STRATEGY_HOLDER.remove();
+        GENERATION_SETTINGS_HOLDER.remove();
     }
 }
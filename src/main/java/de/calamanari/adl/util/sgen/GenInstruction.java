@@ -42,6 +42,14 @@ public record GenInstruction(SampleExpression template, List<TemplateInstruction
         instructions.forEach(e -> e.setBaseListSupplier(() -> targetList));
     }
 
+    /**
+     * @param group other group
+     * @return true if any of the instructions depends on samples generated by the given group
+     */
+    public boolean dependsOn(GenInstructionGroup group) {
+        return instructions.stream().anyMatch(instruction -> instruction.dependsOn(group));
+    }
+
     /**
      * @return the basic empty expression to start applying instructions
      */
@@ -49,4 +49,14 @@ public record GenInstructionGroup(String group, List<GenInstruction> members) {
         members.forEach(instruction -> instruction.prepare(targetList));
     }
 
+    /**
+     * Tells whether any member of this group reads samples of the other group (e.g., <code>${EXPRESSION:id}</code> or <code>${OPAQUE_EXPRESSION}</code>).
+     * 
+     * @param other group
+     * @return true if this group depends on samples generated by the other group
+     */
+    public boolean dependsOn(GenInstructionGroup other) {
+        return members.stream().anyMatch(member -> member.dependsOn(other));
+    }
+
 }
@@ -30,17 +30,33 @@ import org.slf4j.LoggerFactory;
  * Plan with all groups of sample generation instructions to be executed in a single run.
  * <p>
  * A plan is stable in the sense that repeated execution will produce the same output.
+ * <p>
+ * The {@link #seedStrategy()} determines the random choices, only {@link SeedStrategy#SHA1} reproduces the published samples.
+ * <p>
+ * The {@link #generationSettings()} control the number of variations and the sizes of generated lists, only {@link GenerationSettings#DEFAULT} reproduces
+ * the published samples.
  * 
  * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
  */
-public record GenInstructionPlan(List<GenInstructionGroup> groups) {
+public record GenInstructionPlan(List<GenInstructionGroup> groups, SeedStrategy seedStrategy, GenerationSettings generationSettings) {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GenInstructionPlan.class);
 
+    /**
+     * @param groups instruction groups
+     * @param seedStrategy strategy for creating random generators, null defaults to {@link SeedStrategy#SHA1}
+     * @param generationSettings limits of the generation, null defaults to {@link GenerationSettings#DEFAULT}
+     */
     public GenInstructionPlan {
         if (groups == null) {
             throw new IllegalArgumentException("groups must not be null");
         }
+        if (seedStrategy == null) {
+            seedStrategy = SeedStrategy.SHA1;
+        }
+        if (generationSettings == null) {
+            generationSettings = GenerationSettings.DEFAULT;
+        }
         Map<String, String> idToGroupMap = new HashMap<>();
 
         for (GenInstructionGroup group : groups) {
@@ -54,6 +70,33 @@ public record GenInstructionPlan(List<GenInstructionGroup> groups) {
         }
     }
 
+    /**
+     * Creates a plan with the {@link GenerationSettings#DEFAULT} settings
+     * 
+     * @param groups instruction groups
+     * @param seedStrategy strategy for creating random generators, null defaults to {@link SeedStrategy#SHA1}
+     */
+    public GenInstructionPlan(List<GenInstructionGroup> groups, SeedStrategy seedStrategy) {
+        this(groups, seedStrategy, GenerationSettings.DEFAULT);
+    }
+
+    /**
+     * Creates a plan with the default seed strategy {@link SeedStrategy#SHA1}
+     * 
+     * @param groups instruction groups
+     */
+    public GenInstructionPlan(List<GenInstructionGroup> groups) {
+        this(groups, SeedStrategy.SHA1);
+    }
+
+    /**
+     * @param generationSettings new settings
+     * @return plan with the same instructions and seed strategy but the given settings
+     */
+    public GenInstructionPlan withGenerationSettings(GenerationSettings generationSettings) {
+        return new GenInstructionPlan(groups, seedStrategy, generationSettings);
+    }
+
     /**
      * Prepares all included instructions with the supplier with the list of already generated samples before starting the actual generation process.
      * 
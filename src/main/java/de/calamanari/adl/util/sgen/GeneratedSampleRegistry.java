@@ -0,0 +1,142 @@
+//@formatter:off
+/*
+ * GeneratedSampleRegistry
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * The {@link GeneratedSampleRegistry} is an append-only list of the generated samples that maintains the lookups of the reuse instructions incrementally.
+ * <p>
+ * Every index preserves the order of insertion, so a lookup returns exactly what the corresponding linear filter over the list would return.
+ * 
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+class GeneratedSampleRegistry extends AbstractList<SampleExpression> implements RandomAccess {
+
+    /**
+     * all samples in order of insertion
+     */
+    private final List<SampleExpression> samples = new ArrayList<>();
+
+    /**
+     * first valid sample per template id (sample id without the hash suffix)
+     */
+    private final Map<String, SampleExpression> firstValidSampleByTemplateId = new HashMap<>();
+
+    /**
+     * valid samples per group name
+     */
+    private final Map<String, List<SampleExpression>> validSamplesByGroup = new HashMap<>();
+
+    /**
+     * valid composite samples
+     */
+    private final List<SampleExpression> validCompositeSamples = new ArrayList<>();
+
+    /**
+     * valid non-composite samples
+     */
+    private final List<SampleExpression> validOpaqueSamples = new ArrayList<>();
+
+    /**
+     * Appends the sample and updates the indexes, only adding at the end is supported.
+     */
+    @Override
+    public void add(int index, SampleExpression sample) {
+        if (index != samples.size()) {
+            throw new UnsupportedOperationException("Samples can only be appended to the registry, given: index=" + index + ", size=" + samples.size());
+        }
+        samples.add(sample);
+        modCount++;
+        if (!sample.invalid()) {
+            String templateId = templateIdOf(sample);
+            if (templateId != null) {
+                firstValidSampleByTemplateId.putIfAbsent(templateId, sample);
+            }
+            validSamplesByGroup.computeIfAbsent(sample.group(), _ -> new ArrayList<>()).add(sample);
+            if (sample.composite()) {
+                validCompositeSamples.add(sample);
+            }
+            else {
+                validOpaqueSamples.add(sample);
+            }
+        }
+    }
+
+    @Override
+    public SampleExpression get(int index) {
+        return samples.get(index);
+    }
+
+    @Override
+    public int size() {
+        return samples.size();
+    }
+
+    /**
+     * @param templateId id of the sample without the hash suffix
+     * @return first valid sample generated from the template with the given id or null if there is none
+     */
+    SampleExpression findFirstValidSampleByTemplateId(String templateId) {
+        return firstValidSampleByTemplateId.get(templateId);
+    }
+
+    /**
+     * @param group name of the group
+     * @return valid samples of the given group, empty if there are none
+     */
+    List<SampleExpression> getValidSamplesOfGroup(String group) {
+        List<SampleExpression> res = validSamplesByGroup.get(group);
+        return res == null ? Collections.emptyList() : Collections.unmodifiableList(res);
+    }
+
+    /**
+     * @return all valid composite samples
+     */
+    List<SampleExpression> getValidCompositeSamples() {
+        return Collections.unmodifiableList(validCompositeSamples);
+    }
+
+    /**
+     * @return all valid non-composite samples
+     */
+    List<SampleExpression> getValidOpaqueSamples() {
+        return Collections.unmodifiableList(validOpaqueSamples);
+    }
+
+    /**
+     * At runtime every expression gets a unique hash-id-suffix, this method strips the suffix.
+     * 
+     * @param expression generated sample
+     * @return id of the template the sample was generated from or null if the id has no suffix
+     */
+    static String templateIdOf(SampleExpression expression) {
+        String id = expression.id();
+        int pos = id.lastIndexOf('_');
+        return pos > 0 ? id.substring(0, pos) : null;
+    }
+
+}
@@ -0,0 +1,109 @@
+//@formatter:off
+/*
+ * GenerationSettings
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.util.Map;
+
+/**
+ * Settings controlling the size of the output of a {@link GenInstructionPlan}.
+ * <p>
+ * The {@link #DEFAULT} settings are tuned for the conformance corpus (a few thousand samples), they reproduce the published samples. Larger limits are meant
+ * for stress testing, see {@link StressCorpusGenerator}.
+ * 
+ * @param variationCountLimit To avoid combinatoric explosion, we limit the number of variations per template. If this is reached, all pending instructions
+ *            on the current expression will only produce a single result.
+ * @param templateVariationCountLimits optional overrides of the variation count limit by template id (fan-out per template), null means none
+ * @param maxListSize maximum number of values in generated lists (e.g. <code>ANY OF (...)</code>), &gt;= 1
+ * @param unlimitedOutputLimit maximum number of variations of an instruction marked as unlimited in the template (<code>${X*}</code>), &gt;= 1
+ * @param seedSalt if not 0, this value changes all random decisions, so the same plan produces different variations
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+public record GenerationSettings(int variationCountLimit, Map<String, Integer> templateVariationCountLimits, int maxListSize, int unlimitedOutputLimit,
+        long seedSalt) {
+
+    /**
+     * Default variation count limit per template
+     */
+    public static final int DEFAULT_VARIATION_COUNT_LIMIT = 50;
+
+    /**
+     * Default maximum number of values in generated lists
+     */
+    public static final int DEFAULT_MAX_LIST_SIZE = 5;
+
+    /**
+     * Default maximum number of variations of an instruction marked as unlimited (<code>${X*}</code>)
+     */
+    public static final int DEFAULT_UNLIMITED_OUTPUT_LIMIT = 10_000;
+
+    /**
+     * Settings producing the published samples
+     */
+    public static final GenerationSettings DEFAULT = new GenerationSettings(DEFAULT_VARIATION_COUNT_LIMIT, null, DEFAULT_MAX_LIST_SIZE,
+            DEFAULT_UNLIMITED_OUTPUT_LIMIT, 0L);
+
+    /**
+     * @param variationCountLimit limit of variations per template, &gt;= 0
+     * @param templateVariationCountLimits optional overrides of the variation count limit by template id, null means none
+     * @param maxListSize maximum number of values in generated lists, &gt;= 1
+     * @param unlimitedOutputLimit maximum number of variations of an instruction marked as unlimited, &gt;= 1
+     * @param seedSalt 0 for the default random decisions
+     */
+    public GenerationSettings {
+        if (variationCountLimit < 0) {
+            throw new IllegalArgumentException("variationCountLimit must not be negative, given: " + variationCountLimit);
+        }
+        if (maxListSize < 1) {
+            throw new IllegalArgumentException("maxListSize must be >= 1, given: " + maxListSize);
+        }
+        if (unlimitedOutputLimit < 1) {
+            throw new IllegalArgumentException("unlimitedOutputLimit must be >= 1, given: " + unlimitedOutputLimit);
+        }
+        templateVariationCountLimits = templateVariationCountLimits == null ? Map.of() : Map.copyOf(templateVariationCountLimits);
+        if (templateVariationCountLimits.values().stream().anyMatch(limit -> limit < 0)) {
+            throw new IllegalArgumentException("templateVariationCountLimits must not be negative, given: " + templateVariationCountLimits);
+        }
+    }
+
+    /**
+     * @param templateId id of the template
+     * @return variation count limit for the given template
+     */
+    public int variationCountLimit(String templateId) {
+        return templateVariationCountLimits.getOrDefault(templateId, variationCountLimit);
+    }
+
+    /**
+     * @param seedSalt new salt
+     * @return copy of these settings with the given salt
+     */
+    public GenerationSettings withSeedSalt(long seedSalt) {
+        return new GenerationSettings(variationCountLimit, templateVariationCountLimits, maxListSize, unlimitedOutputLimit, seedSalt);
+    }
+
+    /**
+     * @param id expression id
+     * @return the given id if the salt is 0, otherwise the salted id to compute the seed for
+     */
+    String saltedSeedId(String id) {
+        return seedSalt == 0L ? id : id + "#" + seedSalt;
+    }
+
+}
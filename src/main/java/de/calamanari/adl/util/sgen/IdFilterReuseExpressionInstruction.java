@@ -33,6 +33,8 @@ import java.util.function.Predicate;
  * <li>If no expression matches, check if there is a group with a matching name. In this case pick group members randomly.</li>
  * </ul>
  * This allows including previously generated expressions in subsequently generated expressions either by id or group name.
+ * <p>
+ * If the base list is a {@link GeneratedSampleRegistry} both lookups use its indexes instead of scanning the list.
  * 
  * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
  */
@@ -60,6 +62,11 @@ public class IdFilterReuseExpressionInstruction extends AbstractReuseExpressionI
      */
     private static List<SampleExpression> filter(List<SampleExpression> baseList, String idFilter) {
 
+        if (baseList instanceof GeneratedSampleRegistry registry) {
+            SampleExpression firstMatch = registry.findFirstValidSampleByTemplateId(idFilter);
+            return firstMatch != null ? List.of(firstMatch) : registry.getValidSamplesOfGroup(idFilter);
+        }
+
         // match only the first occurrence to make the result more predictable
         List<SampleExpression> res = baseList.stream().filter(Predicate.not(SampleExpression::invalid)).filter(e -> matchId(e, idFilter)).limit(1).toList();
 
@@ -80,13 +87,15 @@ public class IdFilterReuseExpressionInstruction extends AbstractReuseExpressionI
      * @return true if id matches filter
      */
     private static boolean matchId(SampleExpression expression, String idFilter) {
-        boolean res = false;
-        String id = expression.id();
-        int pos = id.lastIndexOf('_');
-        if (pos > 0 && id.substring(0, pos).equals(idFilter)) {
-            res = true;
-        }
-        return res;
+        return idFilter.equals(GeneratedSampleRegistry.templateIdOf(expression));
+    }
+
+    /**
+     * Only the group with the name of the filter or groups containing a template with the given id can provide matching expressions.
+     */
+    @Override
+    public boolean dependsOn(GenInstructionGroup group) {
+        return idFilter.equals(group.group()) || group.members().stream().anyMatch(member -> idFilter.equals(member.template().id()));
     }
 
     @Override
@@ -54,9 +54,32 @@ public class InstructionPlanCreator {
      * @return execution plan
      */
     public GenInstructionPlan createPlan(List<SampleExpressionGroup> templateGroups) {
+        return createPlan(templateGroups, SeedStrategy.SHA1);
+    }
+
+    /**
+     * Creates the execution plan from a list of template groups
+     * 
+     * @param templateGroups
+     * @param seedStrategy strategy for creating random generators, null defaults to {@link SeedStrategy#SHA1}
+     * @return execution plan
+     */
+    public GenInstructionPlan createPlan(List<SampleExpressionGroup> templateGroups, SeedStrategy seedStrategy) {
+        return createPlan(templateGroups, seedStrategy, GenerationSettings.DEFAULT);
+    }
+
+    /**
+     * Creates the execution plan from a list of template groups
+     * 
+     * @param templateGroups
+     * @param seedStrategy strategy for creating random generators, null defaults to {@link SeedStrategy#SHA1}
+     * @param generationSettings limits of the generation, null defaults to {@link GenerationSettings#DEFAULT}
+     * @return execution plan
+     */
+    public GenInstructionPlan createPlan(List<SampleExpressionGroup> templateGroups, SeedStrategy seedStrategy, GenerationSettings generationSettings) {
 
         if (templateGroups == null || templateGroups.isEmpty()) {
-            return new GenInstructionPlan(Collections.emptyList());
+            return new GenInstructionPlan(Collections.emptyList(), seedStrategy, generationSettings);
         }
 
         Map<String, List<GenInstruction>> groupMap = new LinkedHashMap<>();
@@ -78,7 +101,7 @@ public class InstructionPlanCreator {
             }
 
         }
-        return new GenInstructionPlan(generatorInstructionGroups);
+        return new GenInstructionPlan(generatorInstructionGroups, seedStrategy, generationSettings);
 
     }
 
@@ -22,6 +22,8 @@ package de.calamanari.adl.util.sgen;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A {@link InstructionPlanExecutor} executes a previously generated plan to generate samples.
@@ -30,16 +32,10 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class InstructionPlanExecutor {
 
-    /**
-     * To avoid combinatoric explosion, we limit the number of variations. If this is reached, all pending instructions on the current expression will only
-     * produce a single result.
-     */
-    private static final int VARIATION_COUNT_LIMIT = 50;
-
     /**
      * target list for storing the generated samples for reference
      */
-    private final List<SampleExpression> allGeneratedSamples = new ArrayList<>();
+    private final List<SampleExpression> allGeneratedSamples = new GeneratedSampleRegistry();
 
     /**
      * @param plan to be executed
@@ -52,19 +48,45 @@ public class InstructionPlanExecutor {
         List<SampleExpressionGroup> res = new ArrayList<>();
 
         for (GenInstructionGroup instructionGroup : plan.groups()) {
+            res.add(new SampleExpressionGroup(instructionGroup.group(), executeGroup(instructionGroup, allGeneratedSamples, plan)));
+        }
 
-            List<SampleExpression> groupResultList = new ArrayList<>();
+        return res;
 
-            instructionGroup.members().forEach(instruction -> processTemplateInstructions(instruction.startExpression(), instruction.instructions(),
-                    groupResultList, new AtomicInteger()));
+    }
 
-            SampleExpressionGroup sampleExpressionGroup = new SampleExpressionGroup(instructionGroup.group(), groupResultList);
-            res.add(sampleExpressionGroup);
+    /**
+     * Lazily generates the samples of the given plan in the same order as {@link #execute(GenInstructionPlan)}.
+     * <p>
+     * Samples are produced on demand while the stream is consumed, only the samples of groups referenced by later reuse instructions will be kept in memory.
+     * A parallel stream splits the plan between groups that do not depend on each other.
+     * 
+     * @param plan to be executed
+     * @return stream of generated samples
+     */
+    public Stream<SampleExpression> generate(GenInstructionPlan plan) {
+        return StreamSupport.stream(new SampleExpressionSpliterator(plan), false);
+    }
 
-        }
+    /**
+     * Generates the samples of a single group
+     * 
+     * @param instructionGroup group to be executed
+     * @param generatedSamples list of previously generated samples visible to the reuse instructions of the group, each final result will be added
+     * @param plan the group belongs to, provides the seed strategy and the generation settings
+     * @return list of samples generated for this group
+     */
+    protected List<SampleExpression> executeGroup(GenInstructionGroup instructionGroup, List<SampleExpression> generatedSamples, GenInstructionPlan plan) {
 
-        return res;
+        GenerationSettings generationSettings = plan.generationSettings();
+        return GenDataUtils.callWithSettings(plan.seedStrategy(), generationSettings, () -> {
+            List<SampleExpression> groupResultList = new ArrayList<>();
 
+            instructionGroup.members().forEach(instruction -> processTemplateInstructions(instruction.startExpression(), instruction.instructions(),
+                    groupResultList, generatedSamples, new AtomicInteger(), generationSettings.variationCountLimit(instruction.template().id())));
+
+            return groupResultList;
+        });
     }
 
     /**
@@ -76,13 +98,16 @@ public class InstructionPlanExecutor {
      * @param baseExpression expression to perform more instructions on
      * @param templateInstructions pending instructions
      * @param groupResultList result list
+     * @param generatedSamples list of generated samples for later reference
      * @param variationCount number of variations created so far
+     * @param variationCountLimit To avoid combinatoric explosion, we limit the number of variations. If this is reached, all pending instructions on the
+     *            current expression will only produce a single result.
      */
     private void processTemplateInstructions(SampleExpression baseExpression, List<TemplateInstruction> templateInstructions,
-            List<SampleExpression> groupResultList, AtomicInteger variationCount) {
+            List<SampleExpression> groupResultList, List<SampleExpression> generatedSamples, AtomicInteger variationCount, int variationCountLimit) {
 
         List<SampleExpression> results = null;
-        if (variationCount.get() < VARIATION_COUNT_LIMIT) {
+        if (variationCount.get() < variationCountLimit) {
             results = templateInstructions.get(0).apply(baseExpression);
         }
         else {
@@ -96,19 +121,23 @@ public class InstructionPlanExecutor {
                 variationCount.incrementAndGet();
 
                 // store final result for later reference
-                allGeneratedSamples.add(result);
+                generatedSamples.add(result);
             }
         }
         else {
-            results.forEach(instruction -> processTemplateInstructions(instruction, furtherInstructions, groupResultList, variationCount));
+            results.forEach(instruction -> processTemplateInstructions(instruction, furtherInstructions, groupResultList, generatedSamples, variationCount,
+                    variationCountLimit));
         }
 
     }
 
     /**
      * Replaces the generated expression's id with a unique one by appending a hash over the expression's text
+     * 
+     * @param expression fully processed expression
+     * @return final sample expression
      */
-    private SampleExpression finalizeSampleExpression(SampleExpression expression) {
+    static SampleExpression finalizeSampleExpression(SampleExpression expression) {
         return new SampleExpression(expression.id() + "_" + Long.toHexString(GenDataUtils.hashLong(expression.expression())), expression.label(),
                 expression.expression(), expression.invalid(), expression.composite(), expression.skip(), expression.generationInfo().copy());
     }
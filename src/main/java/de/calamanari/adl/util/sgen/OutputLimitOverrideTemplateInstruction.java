@@ -35,16 +35,37 @@ public class OutputLimitOverrideTemplateInstruction implements TemplateInstructi
     private final TemplateInstruction delegate;
 
     /**
-     * this limit overrides the default limit of the wrapped instance
+     * this limit overrides the default limit of the wrapped instance, ignored if {@link #unlimited}
      */
     private final int overrideOutputLimit;
 
+    /**
+     * true if the wrapped instruction is marked as unlimited (<code>${X*}</code>), the effective limit is the
+     * {@link GenerationSettings#unlimitedOutputLimit()} of the current execution
+     */
+    private final boolean unlimited;
+
     /**
      * @param instruction wrapped instruction we apply the restriction to
+     * @param overrideOutputLimit limit replacing the wrapped instruction's default limit
      */
     public OutputLimitOverrideTemplateInstruction(TemplateInstruction instruction, int overrideOutputLimit) {
+        this(instruction, overrideOutputLimit, false);
+    }
+
+    /**
+     * Marks the given instruction as unlimited, its limit will be the {@link GenerationSettings#unlimitedOutputLimit()} of the current execution
+     * 
+     * @param instruction wrapped instruction we lift the restriction of
+     */
+    public OutputLimitOverrideTemplateInstruction(TemplateInstruction instruction) {
+        this(instruction, 0, true);
+    }
+
+    private OutputLimitOverrideTemplateInstruction(TemplateInstruction instruction, int overrideOutputLimit, boolean unlimited) {
         this.delegate = instruction;
         this.overrideOutputLimit = overrideOutputLimit;
+        this.unlimited = unlimited;
     }
 
     @Override
@@ -52,14 +73,26 @@ public class OutputLimitOverrideTemplateInstruction implements TemplateInstructi
         this.delegate.setBaseListSupplier(baseListSupplier);
     }
 
+    @Override
+    public boolean dependsOn(GenInstructionGroup group) {
+        return this.delegate.dependsOn(group);
+    }
+
     @Override
     public int getDefaultOutputLimit() {
-        return overrideOutputLimit;
+        return resolveOverrideOutputLimit();
     }
 
     @Override
     public List<SampleExpression> apply(SampleExpression inputExpression, int outputLimit) {
-        return delegate.apply(inputExpression, Math.min(outputLimit, overrideOutputLimit));
+        return delegate.apply(inputExpression, Math.min(outputLimit, resolveOverrideOutputLimit()));
+    }
+
+    /**
+     * @return the override limit, resolved against the generation settings of the current execution if {@link #unlimited}
+     */
+    private int resolveOverrideOutputLimit() {
+        return unlimited ? GenDataUtils.getGenerationSettings().unlimitedOutputLimit() : overrideOutputLimit;
     }
 
     @Override
@@ -0,0 +1,141 @@
+//@formatter:off
+/*
+ * ParallelInstructionPlanExecutor
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+import de.calamanari.adl.AdlException;
+
+/**
+ * A {@link ParallelInstructionPlanExecutor} executes independent groups of a plan concurrently on a {@link ForkJoinPool}.
+ * <p>
+ * Groups with reuse instructions (<code>${EXPRESSION:id}</code>, <code>${OPAQUE_EXPRESSION}</code>, <code>${COMPOSITE_EXPRESSION}</code>) must wait for the
+ * preceding groups they read from (see {@link GenInstructionGroup#dependsOn(GenInstructionGroup)}). Each group only sees the samples of its dependencies (in
+ * plan order) followed by its own samples. Reuse instructions cannot match any other sample, so the result is identical to the sequential execution by
+ * {@link InstructionPlanExecutor}.
+ * 
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+public class ParallelInstructionPlanExecutor extends InstructionPlanExecutor {
+
+    /**
+     * pool to run the group generation tasks
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an executor running on the common pool
+     */
+    public ParallelInstructionPlanExecutor() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool to run the group generation tasks
+     */
+    public ParallelInstructionPlanExecutor(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool must not be null");
+        }
+        this.pool = pool;
+    }
+
+    @Override
+    public List<SampleExpressionGroup> execute(GenInstructionPlan plan) {
+
+        List<GenInstructionGroup> groups = plan.groups();
+        List<List<Integer>> dependencies = resolveDependencies(groups);
+
+        List<CompletableFuture<List<SampleExpression>>> futures = new ArrayList<>(groups.size());
+
+        for (int idx = 0; idx < groups.size(); idx++) {
+            GenInstructionGroup instructionGroup = groups.get(idx);
+            List<CompletableFuture<List<SampleExpression>>> dependencyFutures = dependencies.get(idx).stream().map(futures::get).toList();
+
+            CompletableFuture<List<SampleExpression>> future = CompletableFuture.allOf(dependencyFutures.toArray(new CompletableFuture<?>[0]))
+                    .thenApplyAsync(_ -> executeGroupAfterDependencies(instructionGroup, dependencyFutures, plan), pool);
+            futures.add(future);
+        }
+
+        List<SampleExpressionGroup> res = new ArrayList<>(groups.size());
+        for (int idx = 0; idx < groups.size(); idx++) {
+            res.add(new SampleExpressionGroup(groups.get(idx).group(), awaitGroupResult(futures.get(idx))));
+        }
+        return res;
+    }
+
+    /**
+     * Prepares the group with its own view on the previously generated samples and runs the generation
+     * 
+     * @param instructionGroup group to be executed
+     * @param dependencyFutures completed results of the groups this group depends on (plan order)
+     * @param plan the group belongs to
+     * @return list of samples generated for this group
+     */
+    private List<SampleExpression> executeGroupAfterDependencies(GenInstructionGroup instructionGroup,
+            List<CompletableFuture<List<SampleExpression>>> dependencyFutures, GenInstructionPlan plan) {
+        List<SampleExpression> generatedSamples = new GeneratedSampleRegistry();
+        dependencyFutures.forEach(dependencyFuture -> generatedSamples.addAll(dependencyFuture.join()));
+        instructionGroup.prepare(generatedSamples);
+        return executeGroup(instructionGroup, generatedSamples, plan);
+    }
+
+    /**
+     * Builds the dependency DAG, a group can only depend on groups preceding it in the plan.
+     * 
+     * @param groups all groups of the plan
+     * @return list with the indices of the groups each group depends on (ascending)
+     */
+    static List<List<Integer>> resolveDependencies(List<GenInstructionGroup> groups) {
+        List<List<Integer>> res = new ArrayList<>(groups.size());
+        for (int idx = 0; idx < groups.size(); idx++) {
+            GenInstructionGroup instructionGroup = groups.get(idx);
+            List<Integer> dependencies = new ArrayList<>();
+            for (int depIdx = 0; depIdx < idx; depIdx++) {
+                if (instructionGroup.dependsOn(groups.get(depIdx))) {
+                    dependencies.add(depIdx);
+                }
+            }
+            res.add(dependencies);
+        }
+        return res;
+    }
+
+    /**
+     * @param future pending group result
+     * @return the group's samples
+     */
+    private static List<SampleExpression> awaitGroupResult(CompletableFuture<List<SampleExpression>> future) {
+        try {
+            return future.join();
+        }
+        catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException rex) {
+                throw rex;
+            }
+            throw new AdlException("Unexpected error during sample generation.", ex.getCause());
+        }
+    }
+
+}
@@ -29,7 +29,8 @@ import java.util.function.Predicate;
 public class ReuseCompositeExpressionInstruction extends AbstractReuseExpressionInstruction {
 
     public ReuseCompositeExpressionInstruction() {
-        super(baseList -> baseList.stream().filter(Predicate.not(SampleExpression::invalid)).filter(SampleExpression::composite).toList());
+        super(baseList -> baseList instanceof GeneratedSampleRegistry registry ? registry.getValidCompositeSamples()
+                : baseList.stream().filter(Predicate.not(SampleExpression::invalid)).filter(SampleExpression::composite).toList());
     }
 
     @Override
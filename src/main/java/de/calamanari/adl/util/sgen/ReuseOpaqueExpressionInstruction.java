@@ -29,7 +29,8 @@ import java.util.function.Predicate;
 public class ReuseOpaqueExpressionInstruction extends AbstractReuseExpressionInstruction {
 
     public ReuseOpaqueExpressionInstruction() {
-        super(baseList -> baseList.stream().filter(Predicate.not(SampleExpression::invalid)).filter(Predicate.not(SampleExpression::composite)).toList());
+        super(baseList -> baseList instanceof GeneratedSampleRegistry registry ? registry.getValidOpaqueSamples()
+                : baseList.stream().filter(Predicate.not(SampleExpression::invalid)).filter(Predicate.not(SampleExpression::composite)).toList());
     }
 
     @Override
@@ -0,0 +1,358 @@
+//@formatter:off
+/*
+ * SampleExpressionSpliterator
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * The {@link SampleExpressionSpliterator} lazily walks the instruction tree of each template depth-first with an explicit stack and emits the final samples
+ * in the same order as the recursive {@link InstructionPlanExecutor#execute(GenInstructionPlan)}.
+ * <p>
+ * The samples of a group are only retained while a later group of this spliterator's range still depends on them (see
+ * {@link GenInstructionGroup#dependsOn(GenInstructionGroup)}). Splitting happens between groups, the split-off prefix must not be referenced by any of the
+ * remaining groups.
+ * 
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+class SampleExpressionSpliterator implements Spliterator<SampleExpression> {
+
+    /**
+     * all groups of the plan
+     */
+    private final List<GenInstructionGroup> groups;
+
+    /**
+     * strategy for creating random generators
+     */
+    private final SeedStrategy seedStrategy;
+
+    /**
+     * limits of the generation
+     */
+    private final GenerationSettings generationSettings;
+
+    /**
+     * per group the indices of the groups it depends on
+     */
+    private final List<List<Integer>> dependencies;
+
+    /**
+     * per group whether its reuse instructions can pick samples of the same group
+     */
+    private final boolean[] selfDependent;
+
+    /**
+     * per group the samples kept for later reuse, null if not (or no longer) needed by this spliterator
+     */
+    private final List<List<SampleExpression>> retainedSamples;
+
+    /**
+     * first group index not covered anymore by this spliterator
+     */
+    private final int endGroupIdx;
+
+    /**
+     * next group to be started
+     */
+    private int nextGroupIdx;
+
+    /**
+     * group currently in progress or -1
+     */
+    private int currentGroupIdx = -1;
+
+    /**
+     * previously generated samples visible to the current group's reuse instructions
+     */
+    private List<SampleExpression> currentView;
+
+    /**
+     * next member (template) of the current group to be started
+     */
+    private int nextMemberIdx;
+
+    /**
+     * instructions of the current template
+     */
+    private List<TemplateInstruction> currentInstructions;
+
+    /**
+     * number of variations created so far for the current template
+     */
+    private int variationCount;
+
+    /**
+     * variation count limit of the current template
+     */
+    private int variationCountLimit;
+
+    /**
+     * partially generated expressions of the current template, top is next
+     */
+    private final Deque<PendingExpression> stack = new ArrayDeque<>();
+
+    /**
+     * finalized samples not yet handed out
+     */
+    private final Deque<SampleExpression> readyQueue = new ArrayDeque<>();
+
+    /**
+     * @param plan to be executed
+     */
+    SampleExpressionSpliterator(GenInstructionPlan plan) {
+        this.groups = plan.groups();
+        this.seedStrategy = plan.seedStrategy();
+        this.generationSettings = plan.generationSettings();
+        this.dependencies = ParallelInstructionPlanExecutor.resolveDependencies(groups);
+        this.selfDependent = new boolean[groups.size()];
+        for (int idx = 0; idx < groups.size(); idx++) {
+            selfDependent[idx] = groups.get(idx).dependsOn(groups.get(idx));
+        }
+        this.retainedSamples = new ArrayList<>(Collections.nCopies(groups.size(), null));
+        this.nextGroupIdx = 0;
+        this.endGroupIdx = groups.size();
+    }
+
+    /**
+     * Creates the spliterator for a split-off range
+     * 
+     * @param parent spliterator being split
+     * @param startGroupIdx first group
+     * @param endGroupIdx first group not covered
+     */
+    private SampleExpressionSpliterator(SampleExpressionSpliterator parent, int startGroupIdx, int endGroupIdx) {
+        this.groups = parent.groups;
+        this.seedStrategy = parent.seedStrategy;
+        this.generationSettings = parent.generationSettings;
+        this.dependencies = parent.dependencies;
+        this.selfDependent = parent.selfDependent;
+        this.retainedSamples = new ArrayList<>(parent.retainedSamples);
+        this.nextGroupIdx = startGroupIdx;
+        this.endGroupIdx = endGroupIdx;
+        releaseUnusedSamples(startGroupIdx);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super SampleExpression> action) {
+        if (readyQueue.isEmpty()) {
+            GenDataUtils.callWithSettings(seedStrategy, generationSettings, this::fillReadyQueue);
+        }
+        SampleExpression sample = readyQueue.poll();
+        if (sample == null) {
+            return false;
+        }
+        action.accept(sample);
+        return true;
+    }
+
+    @Override
+    public Spliterator<SampleExpression> trySplit() {
+        if (currentGroupIdx >= 0 || !readyQueue.isEmpty() || endGroupIdx - nextGroupIdx < 2) {
+            return null;
+        }
+        int midGroupIdx = (nextGroupIdx + endGroupIdx) / 2;
+        int splitGroupIdx = -1;
+        for (int idx = nextGroupIdx + 1; idx < endGroupIdx; idx++) {
+            if (isIndependentSplit(idx) && (splitGroupIdx < 0 || Math.abs(idx - midGroupIdx) < Math.abs(splitGroupIdx - midGroupIdx))) {
+                splitGroupIdx = idx;
+            }
+        }
+        if (splitGroupIdx < 0) {
+            return null;
+        }
+        SampleExpressionSpliterator prefix = new SampleExpressionSpliterator(this, nextGroupIdx, splitGroupIdx);
+        nextGroupIdx = splitGroupIdx;
+        releaseUnusedSamples(nextGroupIdx);
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * Processes pending instructions until at least one final sample is available or all groups are done
+     * 
+     * @return true if there are samples in the ready queue
+     */
+    private Boolean fillReadyQueue() {
+        while (readyQueue.isEmpty()) {
+            if (stack.isEmpty() && !startNextTemplate()) {
+                return Boolean.FALSE;
+            }
+            processNextExpression();
+        }
+        return Boolean.TRUE;
+    }
+
+    /**
+     * Puts the start expression of the next template on the stack, starts and finishes groups as required
+     * 
+     * @return true if a template was started, false if there are no more templates in this spliterator's range
+     */
+    private boolean startNextTemplate() {
+        while (true) {
+            if (currentGroupIdx < 0) {
+                if (nextGroupIdx >= endGroupIdx) {
+                    return false;
+                }
+                startGroup(nextGroupIdx);
+                nextGroupIdx++;
+            }
+            List<GenInstruction> members = groups.get(currentGroupIdx).members();
+            if (nextMemberIdx < members.size()) {
+                GenInstruction instruction = members.get(nextMemberIdx);
+                nextMemberIdx++;
+                currentInstructions = instruction.instructions();
+                variationCount = 0;
+                variationCountLimit = generationSettings.variationCountLimit(instruction.template().id());
+                stack.push(new PendingExpression(instruction.startExpression(), 0));
+                return true;
+            }
+            finishGroup();
+        }
+    }
+
+    /**
+     * Applies the next instruction to the top of the stack, either finalizes the results or pushes them back for the subsequent instruction
+     */
+    private void processNextExpression() {
+        PendingExpression pending = stack.pop();
+        TemplateInstruction instruction = currentInstructions.get(pending.instructionIdx());
+        List<SampleExpression> results = null;
+        if (variationCount < variationCountLimit) {
+            results = instruction.apply(pending.expression());
+        }
+        else {
+            results = instruction.apply(pending.expression(), 0);
+        }
+        int nextInstructionIdx = pending.instructionIdx() + 1;
+        if (nextInstructionIdx == currentInstructions.size()) {
+            List<SampleExpression> retainedList = retainedSamples.get(currentGroupIdx);
+            for (SampleExpression result : results) {
+                result = InstructionPlanExecutor.finalizeSampleExpression(result);
+                readyQueue.add(result);
+                variationCount++;
+                if (selfDependent[currentGroupIdx]) {
+                    currentView.add(result);
+                }
+                if (retainedList != null) {
+                    retainedList.add(result);
+                }
+            }
+        }
+        else {
+            // reverse order, so the first result will be processed next (depth-first like the recursive execution)
+            for (int idx = results.size() - 1; idx > -1; idx--) {
+                stack.push(new PendingExpression(results.get(idx), nextInstructionIdx));
+            }
+        }
+    }
+
+    /**
+     * Prepares the group with its view on the samples of its dependencies (plan order)
+     * 
+     * @param groupIdx group to be started
+     */
+    private void startGroup(int groupIdx) {
+        currentGroupIdx = groupIdx;
+        nextMemberIdx = 0;
+        currentView = new GeneratedSampleRegistry();
+        dependencies.get(groupIdx).forEach(depIdx -> currentView.addAll(retainedSamples.get(depIdx)));
+        groups.get(groupIdx).prepare(currentView);
+        if (isNeededBy(groupIdx, groupIdx + 1)) {
+            retainedSamples.set(groupIdx, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Releases the current group's view and all retained samples no later group depends on
+     */
+    private void finishGroup() {
+        groups.get(currentGroupIdx).prepare(Collections.emptyList());
+        int fromGroupIdx = currentGroupIdx + 1;
+        currentGroupIdx = -1;
+        currentView = null;
+        currentInstructions = null;
+        releaseUnusedSamples(fromGroupIdx);
+    }
+
+    /**
+     * @param fromGroupIdx first group that has not been started yet
+     */
+    private void releaseUnusedSamples(int fromGroupIdx) {
+        for (int idx = 0; idx < fromGroupIdx; idx++) {
+            if (retainedSamples.get(idx) != null && !isNeededBy(idx, fromGroupIdx)) {
+                retainedSamples.set(idx, null);
+            }
+        }
+    }
+
+    /**
+     * @param groupIdx group that has been or is being processed
+     * @param fromGroupIdx first group to check
+     * @return true if any group in this spliterator's range starting with fromGroupIdx depends on the given group
+     */
+    private boolean isNeededBy(int groupIdx, int fromGroupIdx) {
+        for (int idx = fromGroupIdx; idx < endGroupIdx; idx++) {
+            if (dependencies.get(idx).contains(groupIdx)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param splitGroupIdx candidate for the first group remaining with this spliterator
+     * @return true if none of the remaining groups depends on a group of the split-off prefix
+     */
+    private boolean isIndependentSplit(int splitGroupIdx) {
+        for (int idx = splitGroupIdx; idx < endGroupIdx; idx++) {
+            for (int depIdx : dependencies.get(idx)) {
+                if (depIdx >= nextGroupIdx && depIdx < splitGroupIdx) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Partially generated expression with the index of the next instruction to be applied
+     * 
+     * @param expression partially generated expression
+     * @param instructionIdx next instruction to apply
+     */
+    private record PendingExpression(SampleExpression expression, int instructionIdx) {
+    }
+
+}
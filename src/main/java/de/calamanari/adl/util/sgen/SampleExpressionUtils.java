@@ -29,6 +29,7 @@ import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import de.calamanari.adl.util.JsonUtils;
 
@@ -121,15 +122,51 @@ public class SampleExpressionUtils {
      * @return list of sample expression groups
      */
     public static List<SampleExpressionGroup> generateSamples(List<SampleExpressionGroup> sampleTemplateGroups) {
+        return generateSamples(sampleTemplateGroups, false);
+    }
+
+    /**
+     * Generates {@link SampleExpression}s organized in {@link SampleExpressionGroup}s in memory.
+     * <p>
+     * The parallel execution produces exactly the same samples as the sequential one, see {@link ParallelInstructionPlanExecutor}.
+     * 
+     * @param sampleTemplateGroups templates for generating the samples
+     * @param parallel if true, independent groups will be generated concurrently
+     * @return list of sample expression groups
+     */
+    public static List<SampleExpressionGroup> generateSamples(List<SampleExpressionGroup> sampleTemplateGroups, boolean parallel) {
+        return generateSamples(sampleTemplateGroups, parallel, SeedStrategy.SHA1);
+    }
+
+    /**
+     * Generates {@link SampleExpression}s organized in {@link SampleExpressionGroup}s in memory.
+     * 
+     * @param sampleTemplateGroups templates for generating the samples
+     * @param parallel if true, independent groups will be generated concurrently
+     * @param seedStrategy strategy for creating random generators, only {@link SeedStrategy#SHA1} reproduces the published samples
+     * @return list of sample expression groups
+     */
+    public static List<SampleExpressionGroup> generateSamples(List<SampleExpressionGroup> sampleTemplateGroups, boolean parallel, SeedStrategy seedStrategy) {
 
         InstructionPlanCreator planner = new InstructionPlanCreator();
 
-        InstructionPlanExecutor executor = new InstructionPlanExecutor();
+        InstructionPlanExecutor executor = parallel ? new ParallelInstructionPlanExecutor() : new InstructionPlanExecutor();
 
-        return executor.execute(planner.createPlan(sampleTemplateGroups));
+        return executor.execute(planner.createPlan(sampleTemplateGroups, seedStrategy));
 
     }
 
+    /**
+     * Lazily generates {@link SampleExpression}s without keeping the whole set in memory, see {@link InstructionPlanExecutor#generate(GenInstructionPlan)}.
+     * 
+     * @param sampleTemplateGroups templates for generating the samples
+     * @param seedStrategy strategy for creating random generators, only {@link SeedStrategy#SHA1} reproduces the published samples
+     * @return stream of samples in the same order as {@link #generateSamples(List, boolean, SeedStrategy)}
+     */
+    public static Stream<SampleExpression> streamSamples(List<SampleExpressionGroup> sampleTemplateGroups, SeedStrategy seedStrategy) {
+        return new InstructionPlanExecutor().generate(new InstructionPlanCreator().createPlan(sampleTemplateGroups, seedStrategy));
+    }
+
     private SampleExpressionUtils() {
         // utilities
     }
@@ -20,15 +20,14 @@
 package de.calamanari.adl.util.sgen;
 
 import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
-import de.calamanari.adl.util.JsonUtils;
-
 /**
  * A {@link SampleGenInfo} stores details about a sample's generation process (number of tokens, values, comments, etc.).
  * <p>
@@ -40,12 +39,34 @@ public class SampleGenInfo implements Serializable {
 
     private static final long serialVersionUID = 2428148984810966890L;
 
+    private static final int BOUND_VALUES = 1;
+
+    private static final int OPERATORS = 2;
+
+    private static final int ARG_NAMES = 4;
+
+    private static final int ARG_VALUES = 8;
+
+    private static final int ARG_REFS = 16;
+
+    private static final int SNIPPETS = 32;
+
+    private static final int COMMENTS = 64;
+
+    private static final int ALL_LISTS = 0x7F;
+
     /**
      * Internal processing information (awareness of the group during generation)
      */
     @JsonIgnore
     String group = null;
 
+    /**
+     * Bit mask telling which of the lists may be shared with other instances after {@link #copy()}, these lists are never modified in place (copy-on-write)
+     */
+    @JsonIgnore
+    private transient int sharedListMask = 0;
+
     /**
      * count of generated ALL-tokens
      */
@@ -444,7 +465,10 @@ public class SampleGenInfo implements Serializable {
      * @return list of generated bound values
      */
     public List<Integer> getBoundValues() {
-        return boundValues;
+        return readList(boundValues, BOUND_VALUES, () -> this.boundValues, () -> {
+            this.boundValues = writableList(this.boundValues, BOUND_VALUES);
+            return this.boundValues;
+        });
     }
 
     /**
@@ -452,13 +476,27 @@ public class SampleGenInfo implements Serializable {
      */
     public void setBoundValues(List<Integer> boundValues) {
         this.boundValues = boundValues;
+        this.sharedListMask = this.sharedListMask & ~BOUND_VALUES;
+    }
+
+    /**
+     * shorthand for get, add (creates the list if required)
+     * 
+     * @param boundValue generated bound value
+     */
+    public void addBoundValue(Integer boundValue) {
+        this.boundValues = writableList(this.boundValues, BOUND_VALUES);
+        this.boundValues.add(boundValue);
     }
 
     /**
      * @return list of generated operators
      */
     public List<SampleExpressionOperator> getOperators() {
-        return operators;
+        return readList(operators, OPERATORS, () -> this.operators, () -> {
+            this.operators = writableList(this.operators, OPERATORS);
+            return this.operators;
+        });
     }
 
     /**
@@ -466,13 +504,27 @@ public class SampleGenInfo implements Serializable {
      */
     public void setOperators(List<SampleExpressionOperator> operators) {
         this.operators = operators;
+        this.sharedListMask = this.sharedListMask & ~OPERATORS;
+    }
+
+    /**
+     * shorthand for get, add (creates the list if required)
+     * 
+     * @param operator generated operator
+     */
+    public void addOperator(SampleExpressionOperator operator) {
+        this.operators = writableList(this.operators, OPERATORS);
+        this.operators.add(operator);
     }
 
     /**
      * @return list of generated argument names
      */
     public List<String> getArgNames() {
-        return argNames;
+        return readList(argNames, ARG_NAMES, () -> this.argNames, () -> {
+            this.argNames = writableList(this.argNames, ARG_NAMES);
+            return this.argNames;
+        });
     }
 
     /**
@@ -480,13 +532,27 @@ public class SampleGenInfo implements Serializable {
      */
     public void setArgNames(List<String> argNames) {
         this.argNames = argNames;
+        this.sharedListMask = this.sharedListMask & ~ARG_NAMES;
+    }
+
+    /**
+     * shorthand for get, add (creates the list if required)
+     * 
+     * @param argName generated argument name
+     */
+    public void addArgName(String argName) {
+        this.argNames = writableList(this.argNames, ARG_NAMES);
+        this.argNames.add(argName);
     }
 
     /**
      * @return list of generated argument values
      */
     public List<String> getArgValues() {
-        return argValues;
+        return readList(argValues, ARG_VALUES, () -> this.argValues, () -> {
+            this.argValues = writableList(this.argValues, ARG_VALUES);
+            return this.argValues;
+        });
     }
 
     /**
@@ -494,13 +560,27 @@ public class SampleGenInfo implements Serializable {
      */
     public void setArgValues(List<String> argValues) {
         this.argValues = argValues;
+        this.sharedListMask = this.sharedListMask & ~ARG_VALUES;
+    }
+
+    /**
+     * shorthand for get, add (creates the list if required)
+     * 
+     * @param argValue generated argument value
+     */
+    public void addArgValue(String argValue) {
+        this.argValues = writableList(this.argValues, ARG_VALUES);
+        this.argValues.add(argValue);
     }
 
     /**
      * @return list of generated argument name references
      */
     public List<String> getArgRefs() {
-        return argRefs;
+        return readList(argRefs, ARG_REFS, () -> this.argRefs, () -> {
+            this.argRefs = writableList(this.argRefs, ARG_REFS);
+            return this.argRefs;
+        });
     }
 
     /**
@@ -508,13 +588,27 @@ public class SampleGenInfo implements Serializable {
      */
     public void setArgRefs(List<String> argRefs) {
         this.argRefs = argRefs;
+        this.sharedListMask = this.sharedListMask & ~ARG_REFS;
+    }
+
+    /**
+     * shorthand for get, add (creates the list if required)
+     * 
+     * @param argRef generated argument name reference
+     */
+    public void addArgRef(String argRef) {
+        this.argRefs = writableList(this.argRefs, ARG_REFS);
+        this.argRefs.add(argRef);
     }
 
     /**
      * @return list of generated text snippets
      */
     public List<String> getSnippets() {
-        return snippets;
+        return readList(snippets, SNIPPETS, () -> this.snippets, () -> {
+            this.snippets = writableList(this.snippets, SNIPPETS);
+            return this.snippets;
+        });
     }
 
     /**
@@ -522,13 +616,27 @@ public class SampleGenInfo implements Serializable {
      */
     public void setSnippets(List<String> snippets) {
         this.snippets = snippets;
+        this.sharedListMask = this.sharedListMask & ~SNIPPETS;
+    }
+
+    /**
+     * shorthand for get, add (creates the list if required)
+     * 
+     * @param snippet generated text snippet
+     */
+    public void addSnippet(String snippet) {
+        this.snippets = writableList(this.snippets, SNIPPETS);
+        this.snippets.add(snippet);
     }
 
     /**
      * @return list of generated comments
      */
     public List<String> getComments() {
-        return comments;
+        return readList(comments, COMMENTS, () -> this.comments, () -> {
+            this.comments = writableList(this.comments, COMMENTS);
+            return this.comments;
+        });
     }
 
     /**
@@ -536,16 +644,107 @@ public class SampleGenInfo implements Serializable {
      */
     public void setComments(List<String> comments) {
         this.comments = comments;
+        this.sharedListMask = this.sharedListMask & ~COMMENTS;
     }
 
     /**
-     * Creates an <i>independent</i> deep-copy of this instance.
+     * shorthand for get, add (creates the list if required)
+     * 
+     * @param comment generated comment
+     */
+    public void addComment(String comment) {
+        this.comments = writableList(this.comments, COMMENTS);
+        this.comments.add(comment);
+    }
+
+    /**
+     * Creates an <i>independent</i> copy of this instance.
+     * <p>
+     * Lists this instance has not modified since it was created by {@link #copy()} are shared with the copy, only the lists this instance has modified get
+     * copied. The lists of the copy are never modified in place, the first modification of a list replaces it with a private copy (copy-on-write).
+     * <p>
+     * Cost: sharing a list is constant, every other list is copied in full. Because this instance cannot be marked, a list it has modified gets copied here,
+     * and again if the copy modifies it. A generation step that extends the same list as the step before therefore copies that list twice, all other lists
+     * are shared.
+     * <p>
+     * This method does not modify this instance, so concurrent copies of the same instance are safe.
      * 
      * @return copy info
      */
     public SampleGenInfo copy() {
-        SampleGenInfo res = JsonUtils.readFromJsonString(JsonUtils.writeAsJsonString(this, false), SampleGenInfo.class);
-        res.group = this.group;
+        SampleGenInfo res = new SampleGenInfo(this.group);
+        res.cntAll = this.cntAll;
+        res.cntNone = this.cntNone;
+        res.cntIs = this.cntIs;
+        res.cntNot = this.cntNot;
+        res.cntUnknown = this.cntUnknown;
+        res.cntStrict = this.cntStrict;
+        res.cntContains = this.cntContains;
+        res.cntAny = this.cntAny;
+        res.cntBetween = this.cntBetween;
+        res.cntCurb = this.cntCurb;
+        res.cntAnd = this.cntAnd;
+        res.cntOr = this.cntOr;
+        res.cntOf = this.cntOf;
+        res.boundValues = copyList(this.boundValues, BOUND_VALUES);
+        res.operators = copyList(this.operators, OPERATORS);
+        res.argNames = copyList(this.argNames, ARG_NAMES);
+        res.argValues = copyList(this.argValues, ARG_VALUES);
+        res.argRefs = copyList(this.argRefs, ARG_REFS);
+        res.snippets = copyList(this.snippets, SNIPPETS);
+        res.comments = copyList(this.comments, COMMENTS);
+        res.sharedListMask = ALL_LISTS;
+        return res;
+    }
+
+    /**
+     * @param <T> element type
+     * @param list list of this instance (may be null)
+     * @param listFlag identifies the list in the {@link #sharedListMask}
+     * @return the list itself if it is already shared (never modified in place), otherwise a copy
+     */
+    private <T> List<T> copyList(List<T> list, int listFlag) {
+        if (list == null || (sharedListMask & listFlag) != 0) {
+            return list;
+        }
+        return new ArrayList<>(list);
+    }
+
+    /**
+     * Returns the list of this instance for reading, a shared list gets wrapped, so that a modification through the returned list first replaces the shared
+     * list with a private copy.
+     * 
+     * @param <T> element type
+     * @param list current list (may be null)
+     * @param listFlag identifies the list in the {@link #sharedListMask}
+     * @param reader provides the current list of this instance
+     * @param writer provides the list of this instance for modification
+     * @return list or null
+     */
+    private <T> List<T> readList(List<T> list, int listFlag, Supplier<List<T>> reader, Supplier<List<T>> writer) {
+        if (list == null || (sharedListMask & listFlag) == 0) {
+            return list;
+        }
+        return new CopyOnWriteListView<>(reader, writer);
+    }
+
+    /**
+     * Ensures that a list about to be modified is not shared with any other instance
+     * 
+     * @param <T> element type
+     * @param list current list (may be null)
+     * @param listFlag identifies the list in the {@link #sharedListMask}
+     * @return the given list, a copy if it was shared or a new list if it was null
+     */
+    private <T> List<T> writableList(List<T> list, int listFlag) {
+        List<T> res = list;
+        if (res == null) {
+            res = new ArrayList<>();
+        }
+        else if ((sharedListMask & listFlag) != 0) {
+            res = new ArrayList<>(res);
+        }
+        sharedListMask = sharedListMask & ~listFlag;
         return res;
     }
 
@@ -558,13 +757,13 @@ public class SampleGenInfo implements Serializable {
     public SampleGenInfo combine(SampleGenInfo other) {
         SampleGenInfo res = this.copy();
 
-        combineLists(res.argNames, other.argNames, res::setArgNames);
-        combineLists(res.argRefs, other.argRefs, res::setArgRefs);
-        combineLists(res.argValues, other.argValues, res::setArgValues);
-        combineLists(res.boundValues, other.boundValues, res::setBoundValues);
-        combineLists(res.comments, other.comments, res::setComments);
-        combineLists(res.operators, other.operators, res::setOperators);
-        combineLists(res.snippets, other.snippets, res::setSnippets);
+        res.argNames = res.combineLists(res.argNames, other.argNames, ARG_NAMES);
+        res.argRefs = res.combineLists(res.argRefs, other.argRefs, ARG_REFS);
+        res.argValues = res.combineLists(res.argValues, other.argValues, ARG_VALUES);
+        res.boundValues = res.combineLists(res.boundValues, other.boundValues, BOUND_VALUES);
+        res.comments = res.combineLists(res.comments, other.comments, COMMENTS);
+        res.operators = res.combineLists(res.operators, other.operators, OPERATORS);
+        res.snippets = res.combineLists(res.snippets, other.snippets, SNIPPETS);
 
         res.cntAll = res.cntAll + other.cntAll;
         res.cntAnd = res.cntAnd + other.cntAnd;
@@ -582,15 +781,13 @@ public class SampleGenInfo implements Serializable {
         return res;
     }
 
-    private <T> void combineLists(List<T> left, List<T> right, Consumer<List<T>> leftSetter) {
-
-        if (left != null && right != null) {
-            left.addAll(right);
-        }
-        else if (left == null && right != null) {
-            leftSetter.accept(new ArrayList<>(right));
+    private <T> List<T> combineLists(List<T> left, List<T> right, int listFlag) {
+        if (right == null) {
+            return left;
         }
-
+        List<T> res = writableList(left, listFlag);
+        res.addAll(right);
+        return res;
     }
 
     public static SampleGenInfo createEmptyInstanceNoNulls() {
@@ -607,6 +804,57 @@ public class SampleGenInfo implements Serializable {
         return info;
     }
 
+    /**
+     * Read-through view on a shared list, the first modification makes the owning instance replace the shared list with a private copy.
+     * 
+     * @param <T> element type
+     */
+    private static final class CopyOnWriteListView<T> extends AbstractList<T> {
+
+        /**
+         * provides the current list of the owning instance
+         */
+        private final Supplier<List<T>> reader;
+
+        /**
+         * provides the list of the owning instance for modification
+         */
+        private final Supplier<List<T>> writer;
+
+        private CopyOnWriteListView(Supplier<List<T>> reader, Supplier<List<T>> writer) {
+            this.reader = reader;
+            this.writer = writer;
+        }
+
+        @Override
+        public T get(int index) {
+            return reader.get().get(index);
+        }
+
+        @Override
+        public int size() {
+            return reader.get().size();
+        }
+
+        @Override
+        public T set(int index, T element) {
+            return writer.get().set(index, element);
+        }
+
+        @Override
+        public void add(int index, T element) {
+            modCount++;
+            writer.get().add(index, element);
+        }
+
+        @Override
+        public T remove(int index) {
+            modCount++;
+            return writer.get().remove(index);
+        }
+
+    }
+
     @Override
     public String toString() {
         return this.getClass().getSimpleName() + " [cntAll=" + cntAll + ", cntNone=" + cntNone + ", cntIs=" + cntIs + ", cntNot=" + cntNot + ", cntUnknown="
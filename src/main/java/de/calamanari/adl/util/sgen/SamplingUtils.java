@@ -0,0 +1,139 @@
+//@formatter:off
+/*
+ * SamplingUtils
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Algorithms for picking distinct elements from a list at random.
+ * <p>
+ * The <i>compatible</i> variants replay the original copy-and-remove algorithms, they are required to reproduce the published samples (see
+ * {@link SeedStrategy#isCompatibleSampling()}). Their cost grows with the size of the candidate list for every pick, and they remove the <i>first equal</i>
+ * element, which matters if the list contains duplicates.
+ * <p>
+ * All methods are deterministic for a given random generator and leave the candidate list untouched.
+ * 
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+public class SamplingUtils {
+
+    /**
+     * Picks count elements at distinct positions in random order using a partial Fisher-Yates shuffle over a virtual index array (only swapped positions are
+     * recorded), so the effort only depends on count.
+     * 
+     * @param <T> element type
+     * @param candidates not null
+     * @param count number of elements to pick
+     * @param rand for making random decisions
+     * @return list with the picked elements, the candidates list itself if count &gt;= size
+     */
+    public static <T> List<T> pickUnique(List<T> candidates, int count, RandomGenerator rand) {
+        int size = candidates.size();
+        if (count >= size) {
+            return candidates;
+        }
+        else if (count <= 0) {
+            return Collections.emptyList();
+        }
+        List<T> res = new ArrayList<>(count);
+        Map<Integer, Integer> swappedIndexes = new HashMap<>();
+        for (int idx = 0; idx < count; idx++) {
+            int pickIdx = idx + rand.nextInt(size - idx);
+            Integer pickedIndex = swappedIndexes.getOrDefault(pickIdx, pickIdx);
+            swappedIndexes.put(pickIdx, swappedIndexes.getOrDefault(idx, idx));
+            res.add(candidates.get(pickedIndex));
+        }
+        return res;
+    }
+
+    /**
+     * Original algorithm for picking unique elements: repeatedly picks a position of the remaining elements and removes the first element equal to the picked
+     * one.
+     * 
+     * @param <T> element type
+     * @param candidates not null
+     * @param count number of elements to pick
+     * @param rand for making random decisions
+     * @return list with the picked elements, the candidates list itself if count &gt;= size
+     */
+    public static <T> List<T> pickUniqueCompatible(List<T> candidates, int count, RandomGenerator rand) {
+        if (candidates.size() <= count) {
+            return candidates;
+        }
+        else if (count <= 0) {
+            return Collections.emptyList();
+        }
+        List<T> res = new ArrayList<>(count);
+        List<T> availableCandidates = new ArrayList<>(candidates);
+        for (int i = 0; i < count; i++) {
+            T value = availableCandidates.get(rand.nextInt(availableCandidates.size()));
+            res.add(value);
+            availableCandidates.remove(value);
+        }
+        return res;
+    }
+
+    /**
+     * Creates a random permutation of the candidates (Fisher-Yates)
+     * 
+     * @param <T> element type
+     * @param candidates not null
+     * @param rand for making random decisions
+     * @return new list with all candidates in random order
+     */
+    public static <T> List<T> shuffle(List<T> candidates, RandomGenerator rand) {
+        List<T> res = new ArrayList<>(candidates);
+        for (int idx = res.size() - 1; idx > 0; idx--) {
+            Collections.swap(res, idx, rand.nextInt(idx + 1));
+        }
+        return res;
+    }
+
+    /**
+     * Original algorithm for ordering all candidates randomly: repeatedly picks any remaining element <i>except the first</i> and removes the first element
+     * equal to the picked one until only a single element is left, which comes last.
+     * 
+     * @param <T> element type
+     * @param candidates not null
+     * @param rand for making random decisions
+     * @return new list with all candidates in random order
+     */
+    public static <T> List<T> shuffleCompatible(List<T> candidates, RandomGenerator rand) {
+        List<T> res = new ArrayList<>(candidates.size());
+        List<T> availableCandidates = new ArrayList<>(candidates);
+        while (availableCandidates.size() > 1) {
+            T value = availableCandidates.get(rand.nextInt(availableCandidates.size() - 1) + 1);
+            res.add(value);
+            availableCandidates.remove(value);
+        }
+        res.addAll(availableCandidates);
+        return res;
+    }
+
+    private SamplingUtils() {
+        // utilities
+    }
+
+}
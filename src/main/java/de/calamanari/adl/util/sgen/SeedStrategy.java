@@ -0,0 +1,84 @@
+//@formatter:off
+/*
+ * SeedStrategy
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * A {@link SeedStrategy} defines how the random generator for making choices on a partially generated {@link SampleExpression} gets created.
+ * <p>
+ * Both strategies are deterministic: the same id and expression text always lead to the same sequence of random values.
+ * 
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+public enum SeedStrategy {
+
+    /**
+     * SHA-1 hash over the concatenated id and expression text feeding a {@link Random}, this strategy reproduces the published samples.
+     */
+    SHA1(true) {
+
+        @Override
+        public RandomGenerator createRandom(String id, String expression) {
+            return GenDataUtils.createRandomWithSeed(id + expression);
+        }
+
+    },
+
+    /**
+     * 64-bit non-cryptographic hash streamed over id and expression text (no concatenation) feeding a {@link SplittableRandom}.
+     * <p>
+     * Much cheaper than {@link #SHA1} but it produces a <i>different</i> set of samples.
+     */
+    FAST(false) {
+
+        @Override
+        public RandomGenerator createRandom(String id, String expression) {
+            return new SplittableRandom(GenDataUtils.fastHashLong(id, expression));
+        }
+
+    };
+
+    /**
+     * see {@link #isCompatibleSampling()}
+     */
+    private final boolean compatibleSampling;
+
+    private SeedStrategy(boolean compatibleSampling) {
+        this.compatibleSampling = compatibleSampling;
+    }
+
+    /**
+     * @return true if random selections of distinct elements must use the original algorithms (see {@link SamplingUtils}) to reproduce the published samples
+     */
+    public boolean isCompatibleSampling() {
+        return compatibleSampling;
+    }
+
+    /**
+     * @param id expression id
+     * @param expression expression text generated so far
+     * @return new random generator seeded from the given id and expression text
+     */
+    public abstract RandomGenerator createRandom(String id, String expression);
+
+}
@@ -22,8 +22,7 @@ package de.calamanari.adl.util.sgen;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
-import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
 
 import de.calamanari.adl.util.TriFunction;
 
@@ -188,7 +187,7 @@ public enum StatelessInstruction implements TemplateInstruction {
      * @param rand for making a random decising
      * @return one of the patterns
      */
-    private static String pickValue(String[] patterns, Random rand) {
+    private static String pickValue(String[] patterns, RandomGenerator rand) {
         int idx = 0;
         if (patterns.length > 1) {
             idx = rand.nextInt(patterns.length - 1) + 1;
@@ -204,27 +203,14 @@ public enum StatelessInstruction implements TemplateInstruction {
      * @param len number of items requested in the generated list
      * @return list of patterns (may be shorter than requested if there are not enough patterns)
      */
-    private static List<String> pickValuesNoDuplicates(String[] patterns, Random rand, int len) {
+    private static List<String> pickValuesNoDuplicates(String[] patterns, RandomGenerator rand, int len) {
 
         if (patterns.length >= len) {
             return Arrays.asList(patterns);
         }
 
-        List<String> res = new ArrayList<>();
-        List<String> availablePatterns = new ArrayList<>(Arrays.asList(patterns));
-
-        for (int i = 0; i < len; i++) {
-            if (availablePatterns.size() == 1) {
-                res.add(availablePatterns.get(0));
-                break;
-            }
-            else {
-                String value = pickValue(availablePatterns.toArray(new String[0]), rand);
-                res.add(value);
-                availablePatterns.remove(value);
-            }
-        }
-        return res;
+        // not enough patterns, so we take all of them in random order
+        return GenDataUtils.shuffle(Arrays.asList(patterns), rand);
 
     }
 
@@ -236,7 +222,7 @@ public enum StatelessInstruction implements TemplateInstruction {
      * @param max limits the maximum number of items in the generated list
      * @return list of patterns
      */
-    private static List<String> pickValues(String[] patterns, Random rand, int max) {
+    private static List<String> pickValues(String[] patterns, RandomGenerator rand, int max) {
 
         List<String> res = new ArrayList<>();
 
@@ -292,19 +278,19 @@ public enum StatelessInstruction implements TemplateInstruction {
             info.incrementCntCurb();
             break;
         case OP:
-            createOrUpdateList(info.getOperators(), SampleExpressionOperator.resolve(pattern), info::setOperators);
+            info.addOperator(SampleExpressionOperator.resolve(pattern));
             break;
         case ARG_NAME:
-            createOrUpdateList(info.getArgNames(), pattern, info::setArgNames);
+            info.addArgName(pattern);
             break;
         case ARG_VALUE:
-            createOrUpdateList(info.getArgValues(), pattern, info::setArgValues);
+            info.addArgValue(pattern);
             break;
         case ARG_REF:
-            createOrUpdateList(info.getArgRefs(), pattern.substring(1), info::setArgRefs);
+            info.addArgRef(pattern.substring(1));
             break;
         case COMMENT:
-            createOrUpdateList(info.getComments(), trimComment(pattern), info::setComments);
+            info.addComment(trimComment(pattern));
             break;
         case AND:
             info.incrementCntAnd();
@@ -313,10 +299,10 @@ public enum StatelessInstruction implements TemplateInstruction {
             info.incrementCntOr();
             break;
         case SNIPPET:
-            createOrUpdateList(info.getSnippets(), pattern, info::setSnippets);
+            info.addSnippet(pattern);
             break;
         case BOUND:
-            createOrUpdateList(info.getBoundValues(), Integer.valueOf(pattern), info::setBoundValues);
+            info.addBoundValue(Integer.valueOf(pattern));
             break;
         // $CASES-OMITTED$
         default:
@@ -343,23 +329,6 @@ public enum StatelessInstruction implements TemplateInstruction {
         return comment.substring(start, end);
     }
 
-    /**
-     * For technical reasons we don't want empty lists in the generation info, so we need to deal with nulls
-     * 
-     * @param <T>
-     * @param list current list to be updated
-     * @param element element to be added
-     * @param setter setter to replace null with list if required
-     */
-    private <T> void createOrUpdateList(List<T> list, T element, Consumer<List<T>> setter) {
-        if (list == null) {
-            list = new ArrayList<>();
-            setter.accept(list);
-        }
-        list.add(element);
-
-    }
-
     /**
      * take the first pattern only (convention is that the first one is the nicest one)
      * 
@@ -406,7 +375,7 @@ public enum StatelessInstruction implements TemplateInstruction {
      */
     private static List<SampleExpression> augmentWithTokenSingleSelect(StatelessInstruction instance, SampleExpression inputExpression, String[] patterns,
             int outputLimit) {
-        Random rand = GenDataUtils.createRandomWithSeed(inputExpression);
+        RandomGenerator rand = GenDataUtils.createRandomGenerator(inputExpression);
         String pattern = outputLimit < 1 ? patterns[0] : pickValue(patterns, rand);
         List<SampleExpression> res = new ArrayList<>();
         augmentWithPattern(instance, inputExpression, pattern, res);
@@ -434,7 +403,7 @@ public enum StatelessInstruction implements TemplateInstruction {
      * @return list of generated expressions
      */
     private static List<SampleExpression> augmentWithTokenMultiSelect(StatelessInstruction instance, SampleExpression inputExpression, int outputLimit) {
-        Random rand = GenDataUtils.createRandomWithSeed(inputExpression);
+        RandomGenerator rand = GenDataUtils.createRandomGenerator(inputExpression);
         List<SampleExpression> res = new ArrayList<>();
 
         int multiplier = (inputExpression.invalid() || outputLimit <= 1) ? 1 : outputLimit;
@@ -460,7 +429,7 @@ public enum StatelessInstruction implements TemplateInstruction {
      * @return list of generated expressions
      */
     private static List<SampleExpression> augmentWithWhitespaceOrComment(StatelessInstruction instance, SampleExpression inputExpression, int outputLimit) {
-        Random rand = GenDataUtils.createRandomWithSeed(inputExpression);
+        RandomGenerator rand = GenDataUtils.createRandomGenerator(inputExpression);
 
         boolean skipVariations = (outputLimit < 1);
 
@@ -494,10 +463,10 @@ public enum StatelessInstruction implements TemplateInstruction {
      * @return list of generated expressions
      */
     private static List<SampleExpression> augmentWithTokenCSV(StatelessInstruction instance, SampleExpression inputExpression, int outputLimit) {
-        Random rand = GenDataUtils.createRandomWithSeed(inputExpression);
+        RandomGenerator rand = GenDataUtils.createRandomGenerator(inputExpression);
 
-        // list with <= 5 elements for CSV-creation
-        List<String> listValues = pickValues(instance.patterns, rand, 5);
+        // list with <= maxListSize (default: 5) elements for CSV-creation
+        List<String> listValues = pickValues(instance.patterns, rand, GenDataUtils.getGenerationSettings().maxListSize());
 
         StringBuilder sbNewExpression = new StringBuilder(inputExpression.expression());
 
@@ -539,7 +508,7 @@ public enum StatelessInstruction implements TemplateInstruction {
      * @param sbNewExpression expression text to be extended
      * @param newInfo info to be updated in case we generate a comment
      */
-    private static void occasionallyAppendWhitespaceOrComment(Random rand, StringBuilder sbNewExpression, SampleGenInfo newInfo) {
+    private static void occasionallyAppendWhitespaceOrComment(RandomGenerator rand, StringBuilder sbNewExpression, SampleGenInfo newInfo) {
         if (rand.nextInt(100) < 10) {
             sbNewExpression.append("\n");
         }
@@ -562,7 +531,7 @@ public enum StatelessInstruction implements TemplateInstruction {
      * @param skipVariations if true skip the invalid examples
      * @return generated samples
      */
-    private List<SampleExpression> addInvalidExpressionIfAppropriate(SampleExpression inputExpression, Random rand, List<SampleExpression> results,
+    private List<SampleExpression> addInvalidExpressionIfAppropriate(SampleExpression inputExpression, RandomGenerator rand, List<SampleExpression> results,
             boolean skipVariations) {
 
         if (inputExpression.invalid() || skipVariations) {
@@ -610,7 +579,7 @@ public enum StatelessInstruction implements TemplateInstruction {
      * @param badPatternTemplates templates to pick bad patterns from
      * @param numberOfVariations
      */
-    private void addBadPatterns(SampleExpression inputExpression, Random rand, List<String> invalidExpressions, String[] badPatternTemplates,
+    private void addBadPatterns(SampleExpression inputExpression, RandomGenerator rand, List<String> invalidExpressions, String[] badPatternTemplates,
             int numberOfVariations) {
 
         List<String> badPatterns = pickValuesNoDuplicates(badPatternTemplates, rand, numberOfVariations);
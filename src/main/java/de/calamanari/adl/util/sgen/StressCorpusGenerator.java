@@ -0,0 +1,148 @@
+//@formatter:off
+/*
+ * StressCorpusGenerator
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import de.calamanari.adl.AdlException;
+import de.calamanari.adl.util.JsonUtils;
+
+/**
+ * The {@link StressCorpusGenerator} produces large amounts of samples for load-testing parsers, much more than the conformance corpus.
+ * <p>
+ * The plan gets executed lazily in rounds, each round with a different {@link GenerationSettings#seedSalt()}, until the target number of samples or the
+ * target size of all expression texts has been reached. The samples go directly to a sink, so the memory consumption does not depend on the size of the
+ * corpus. Use higher {@link GenerationSettings#variationCountLimit()}s, a larger {@link GenerationSettings#maxListSize()} and a larger
+ * {@link GenerationSettings#unlimitedOutputLimit()} to increase the variety per round.
+ * <p>
+ * Templates without any random choices produce the same samples in every round, so a stress corpus can contain duplicates.
+ * 
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+public class StressCorpusGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StressCorpusGenerator.class);
+
+    /**
+     * plan to be executed repeatedly
+     */
+    private final GenInstructionPlan plan;
+
+    /**
+     * @param plan to be executed repeatedly, the salt of its settings is the salt of the first round
+     */
+    public StressCorpusGenerator(GenInstructionPlan plan) {
+        if (plan == null) {
+            throw new IllegalArgumentException("plan must not be null");
+        }
+        this.plan = plan;
+    }
+
+    /**
+     * @param templateGroups sample templates
+     * @param seedStrategy strategy for creating random generators, null defaults to {@link SeedStrategy#SHA1}
+     * @param generationSettings limits of the generation, null defaults to {@link GenerationSettings#DEFAULT}
+     */
+    public StressCorpusGenerator(List<SampleExpressionGroup> templateGroups, SeedStrategy seedStrategy, GenerationSettings generationSettings) {
+        this(new InstructionPlanCreator().createPlan(templateGroups, seedStrategy, generationSettings));
+    }
+
+    /**
+     * Generates samples until the first of the given targets has been reached.
+     * 
+     * @param targetSampleCount number of samples to be generated, &lt;=0 means unlimited
+     * @param targetByteCount minimum total size (UTF-8) of the expression texts to be generated, &lt;=0 means unlimited
+     * @param sink consumer of the generated samples
+     * @return statistics about the generated samples
+     */
+    public StressCorpusStatistics generate(long targetSampleCount, long targetByteCount, Consumer<SampleExpression> sink) {
+        if (targetSampleCount <= 0 && targetByteCount <= 0) {
+            throw new IllegalArgumentException(String.format("At least one target must be specified, given: targetSampleCount=%d, targetByteCount=%d",
+                    targetSampleCount, targetByteCount));
+        }
+        if (sink == null) {
+            throw new IllegalArgumentException("sink must not be null");
+        }
+
+        StressCorpusStatistics statistics = new StressCorpusStatistics();
+        Consumer<SampleExpression> action = sample -> {
+            sink.accept(sample);
+            statistics.add(sample);
+        };
+
+        long baseSeedSalt = plan.generationSettings().seedSalt();
+        for (long round = 0; !isTargetReached(statistics, targetSampleCount, targetByteCount); round++) {
+            GenInstructionPlan roundPlan = plan.withGenerationSettings(plan.generationSettings().withSeedSalt(baseSeedSalt + round));
+            SampleExpressionSpliterator spliterator = new SampleExpressionSpliterator(roundPlan);
+            long sampleCountBefore = statistics.getSampleCount();
+            boolean hasMoreSamples = true;
+            while (hasMoreSamples && !isTargetReached(statistics, targetSampleCount, targetByteCount)) {
+                hasMoreSamples = spliterator.tryAdvance(action);
+            }
+            if (statistics.getSampleCount() == sampleCountBefore) {
+                LOGGER.warn("The plan did not produce any samples, stopping after {} samples.", sampleCountBefore);
+                break;
+            }
+            LOGGER.debug("Finished round {}: {}", round, statistics);
+        }
+        return statistics;
+    }
+
+    /**
+     * @param statistics current state
+     * @param targetSampleCount number of samples to be generated, &lt;=0 means unlimited
+     * @param targetByteCount minimum total size of the expression texts to be generated, &lt;=0 means unlimited
+     * @return true if any of the targets has been reached
+     */
+    private static boolean isTargetReached(StressCorpusStatistics statistics, long targetSampleCount, long targetByteCount) {
+        return (targetSampleCount > 0 && statistics.getSampleCount() >= targetSampleCount)
+                || (targetByteCount > 0 && statistics.getByteCount() >= targetByteCount);
+    }
+
+    /**
+     * Creates a sink that writes each sample as a single line of JSON (JSON Lines format) to the given writer.
+     * <p>
+     * The writer won't be flushed or closed by the sink.
+     * 
+     * @param writer target
+     * @return sink
+     */
+    public static Consumer<SampleExpression> createJsonLinesSink(Writer writer) {
+        ObjectWriter objectWriter = JsonUtils.createObjectMapper(false).writer();
+        return sample -> {
+            try {
+                writer.write(objectWriter.writeValueAsString(sample));
+                writer.write('\n');
+            }
+            catch (IOException ex) {
+                throw new AdlException("Error writing sample " + sample.id(), ex);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,196 @@
+//@formatter:off
+/*
+ * StressCorpusStatistics
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Figures about the samples produced by a {@link StressCorpusGenerator}: count, size, distribution of expression lengths and nesting depths.
+ * <p>
+ * Instances are not thread-safe.
+ * 
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+public class StressCorpusStatistics {
+
+    /**
+     * number of samples
+     */
+    private long sampleCount = 0;
+
+    /**
+     * number of samples marked invalid
+     */
+    private long invalidSampleCount = 0;
+
+    /**
+     * sum of the UTF-8 lengths of all expression texts
+     */
+    private long byteCount = 0;
+
+    /**
+     * length of the longest expression text
+     */
+    private int maxExpressionLength = 0;
+
+    /**
+     * number of samples per length class, index <i>n</i> counts the lengths from 2<sup>n-1</sup> to 2<sup>n</sup>-1, index 0 the empty expressions
+     */
+    private final long[] lengthHistogram = new long[Integer.SIZE];
+
+    /**
+     * number of samples per maximum parenthesis nesting depth
+     */
+    private final Map<Integer, Long> nestingDepthHistogram = new TreeMap<>();
+
+    /**
+     * Adds the given sample to the statistics
+     * 
+     * @param sample generated sample
+     */
+    public void add(SampleExpression sample) {
+        String expression = sample.expression();
+        sampleCount++;
+        if (sample.invalid()) {
+            invalidSampleCount++;
+        }
+        byteCount += utf8Length(expression);
+        maxExpressionLength = Math.max(maxExpressionLength, expression.length());
+        lengthHistogram[Integer.SIZE - Integer.numberOfLeadingZeros(expression.length())]++;
+        nestingDepthHistogram.merge(nestingDepth(expression), 1L, Long::sum);
+    }
+
+    /**
+     * @return number of samples
+     */
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * @return number of samples marked invalid
+     */
+    public long getInvalidSampleCount() {
+        return invalidSampleCount;
+    }
+
+    /**
+     * @return sum of the UTF-8 lengths of all expression texts
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * @return length (characters) of the longest expression text
+     */
+    public int getMaxExpressionLength() {
+        return maxExpressionLength;
+    }
+
+    /**
+     * @return number of samples per length class, key <i>n</i> counts the lengths from 2<sup>n-1</sup> to 2<sup>n</sup>-1, key 0 the empty expressions
+     */
+    public Map<Integer, Long> getLengthHistogram() {
+        Map<Integer, Long> res = new TreeMap<>();
+        for (int idx = 0; idx < lengthHistogram.length; idx++) {
+            if (lengthHistogram[idx] > 0) {
+                res.put(idx, lengthHistogram[idx]);
+            }
+        }
+        return Collections.unmodifiableMap(res);
+    }
+
+    /**
+     * @return number of samples per maximum parenthesis nesting depth
+     */
+    public Map<Integer, Long> getNestingDepthHistogram() {
+        return Collections.unmodifiableMap(nestingDepthHistogram);
+    }
+
+    /**
+     * Determines the maximum nesting depth of parentheses, parentheses inside double-quoted strings and comments are ignored.
+     * 
+     * @param expression text
+     * @return maximum depth, 0 if there are no parentheses
+     */
+    static int nestingDepth(String expression) {
+        int depth = 0;
+        int maxDepth = 0;
+        boolean inString = false;
+        int len = expression.length();
+        for (int idx = 0; idx < len; idx++) {
+            char ch = expression.charAt(idx);
+            if (ch == '"') {
+                // escaped quotes ("") toggle twice
+                inString = !inString;
+            }
+            else if (!inString && ch == '/' && idx < len - 1 && expression.charAt(idx + 1) == '*') {
+                int idxEndComment = expression.indexOf("*/", idx + 2);
+                idx = idxEndComment < 0 ? len : idxEndComment + 1;
+            }
+            else if (!inString && ch == '(') {
+                depth++;
+                maxDepth = Math.max(maxDepth, depth);
+            }
+            else if (!inString && ch == ')') {
+                depth--;
+            }
+        }
+        return maxDepth;
+    }
+
+    /**
+     * @param text source
+     * @return number of bytes of the UTF-8 encoded text (without encoding it)
+     */
+    static long utf8Length(String text) {
+        long res = 0;
+        int len = text.length();
+        for (int idx = 0; idx < len; idx++) {
+            char ch = text.charAt(idx);
+            if (ch < 0x80) {
+                res++;
+            }
+            else if (ch < 0x800) {
+                res = res + 2;
+            }
+            else if (Character.isHighSurrogate(ch) && idx < len - 1 && Character.isLowSurrogate(text.charAt(idx + 1))) {
+                res = res + 4;
+                idx++;
+            }
+            else {
+                // a single surrogate gets encoded as '?'
+                res = res + (Character.isSurrogate(ch) ? 1 : 3);
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + " [sampleCount=" + sampleCount + ", invalidSampleCount=" + invalidSampleCount + ", byteCount=" + byteCount
+                + ", maxExpressionLength=" + maxExpressionLength + ", lengthHistogram=" + getLengthHistogram() + ", nestingDepthHistogram="
+                + nestingDepthHistogram + "]";
+    }
+
+}
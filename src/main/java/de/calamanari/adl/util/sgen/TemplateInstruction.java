@@ -45,6 +45,17 @@ public interface TemplateInstruction {
         // default is a no-op
     }
 
+    /**
+     * Tells whether this instruction reads samples generated by the given group, so all of that group's samples must be available before this instruction can
+     * be applied.
+     * 
+     * @param group candidate group
+     * @return true if this instruction depends on samples of the given group, default is false
+     */
+    default boolean dependsOn(GenInstructionGroup group) {
+        return false;
+    }
+
     /**
      * Appends information to the expression and produces one or many output expressions.
      * 
@@ -122,20 +122,24 @@ public class TemplateInstructionParser {
         if (idxClose > 0) {
             String instructionName = templateExpression.substring(idxStart, idxEnd);
             int overrideOutputLimit = -1;
+            boolean unlimited = false;
             if (instructionName.endsWith("!")) {
                 overrideOutputLimit = 0;
                 instructionName = instructionName.substring(0, instructionName.length() - 1);
             }
             else if (instructionName.endsWith("*")) {
-                // effectively unlimited
-                overrideOutputLimit = 10_000;
+                // effectively unlimited, see GenerationSettings.unlimitedOutputLimit()
+                unlimited = true;
                 instructionName = instructionName.substring(0, instructionName.length() - 1);
             }
             TemplateInstruction instruction = createInstruction(instructionName, argument);
 
             validateInstruction(instruction, templateExpression, instructionName, argument);
 
-            if (overrideOutputLimit >= 0) {
+            if (unlimited) {
+                instruction = new OutputLimitOverrideTemplateInstruction(instruction);
+            }
+            else if (overrideOutputLimit >= 0) {
                 instruction = new OutputLimitOverrideTemplateInstruction(instruction, overrideOutputLimit);
             }
             res.add(instruction);
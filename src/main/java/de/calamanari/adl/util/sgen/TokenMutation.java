@@ -0,0 +1,102 @@
+//@formatter:off
+/*
+ * TokenMutation
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link TokenMutation} is a single modification of the token sequence of an expression, see {@link AtnExpressionFuzzer}.
+ * <p>
+ * A mutation does not necessarily make an expression invalid (e.g., swapping the arguments of an <code>AND</code>), the validity of the result must be
+ * determined by parsing it.
+ * 
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+public enum TokenMutation {
+
+    /**
+     * Removes the token at the given position
+     */
+    DROP(1) {
+
+        @Override
+        public List<String> apply(List<String> tokens, int tokenIdx, int otherTokenIdx) {
+            List<String> res = new ArrayList<>(tokens);
+            res.remove(tokenIdx);
+            return res;
+        }
+
+    },
+
+    /**
+     * Exchanges the token at the given position with the other token (usually the next significant one)
+     */
+    SWAP(2) {
+
+        @Override
+        public List<String> apply(List<String> tokens, int tokenIdx, int otherTokenIdx) {
+            List<String> res = new ArrayList<>(tokens);
+            Collections.swap(res, tokenIdx, otherTokenIdx);
+            return res;
+        }
+
+    },
+
+    /**
+     * Repeats the token at the given position
+     */
+    DUPLICATE(1) {
+
+        @Override
+        public List<String> apply(List<String> tokens, int tokenIdx, int otherTokenIdx) {
+            List<String> res = new ArrayList<>(tokens);
+            res.add(tokenIdx, tokens.get(tokenIdx));
+            return res;
+        }
+
+    };
+
+    /**
+     * number of significant tokens an expression needs to apply this mutation
+     */
+    private final int minTokenCount;
+
+    private TokenMutation(int minTokenCount) {
+        this.minTokenCount = minTokenCount;
+    }
+
+    /**
+     * @return number of significant tokens an expression needs to apply this mutation
+     */
+    public int getMinTokenCount() {
+        return minTokenCount;
+    }
+
+    /**
+     * @param tokens texts of the tokens of an expression
+     * @param tokenIdx position of the token to be mutated
+     * @param otherTokenIdx position of the second token for mutations that affect two tokens, otherwise ignored
+     * @return new list with the mutated token texts
+     */
+    public abstract List<String> apply(List<String> tokens, int tokenIdx, int otherTokenIdx);
+
+}
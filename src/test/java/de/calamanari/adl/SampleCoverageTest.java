@@ -0,0 +1,110 @@
+//@formatter:off
+/*
+ * SampleCoverageTest
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.calamanari.adl.util.sgen.AntlrCoverageTracker;
+import de.calamanari.adl.util.sgen.AtnExpressionFuzzer;
+import de.calamanari.adl.util.sgen.CoverageGuidedSampleSelector;
+import de.calamanari.adl.util.sgen.InstructionPlanCreator;
+import de.calamanari.adl.util.sgen.SampleExpression;
+import de.calamanari.adl.util.sgen.SampleExpressionGroup;
+import de.calamanari.adl.util.sgen.SampleExpressionUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+class SampleCoverageTest {
+
+    static final Logger LOGGER = LoggerFactory.getLogger(SampleCoverageTest.class);
+
+    /**
+     * Valid expressions the grammar accepts but no template produces: CURB with any operator other than = and STRICT NOT applied to an expression (e.g.,
+     * <code>STRICT NOT (a = 1 OR b = 2)</code>). Any change here means the templates have changed, the list must be updated.
+     */
+    private static final Set<String> RULES_NOT_COVERED_BY_TEMPLATES = Set.of("rule:curbGreaterThan", "rule:curbGreaterThanOrEquals", "rule:curbLessThan",
+            "rule:curbLessThanOrEquals", "rule:curbNotEquals", "rule:strictNotExpression");
+
+    @Test
+    void testCoverageGuidedSelection() throws IOException {
+
+        List<SampleExpressionGroup> templateGroups = SampleExpressionUtils.readSampleGroupsFromJsonResource("/samples/sample-expressions-template.json");
+
+        AntlrCoverageTracker tracker = new AntlrCoverageTracker();
+        CoverageGuidedSampleSelector selector = new CoverageGuidedSampleSelector(new InstructionPlanCreator().createPlan(templateGroups),
+                tracker.createCoverageProbe());
+
+        List<SampleExpression> selected = selector.select(3).stream().flatMap(group -> group.samples().stream()).toList();
+
+        LOGGER.info("Coverage of {} selected out of {} generated samples: {}", selected.size(), selector.getGeneratedSampleCount(), tracker.createReport());
+
+        // the first round generates the regular samples
+        int corpusSize = SampleExpressionUtils.generateSamples(templateGroups).stream().mapToInt(group -> group.samples().size()).sum();
+        assertTrue(selector.getGeneratedSampleCount() > corpusSize);
+        assertTrue(selected.size() * 10 < corpusSize);
+
+        // every call site observed must be a rule reference of the ATN
+        assertTrue(tracker.allCallSiteFeatures().containsAll(
+                tracker.getFeatureCounts().keySet().stream().filter(feature -> feature.startsWith(AntlrCoverageTracker.CALL_PREFIX)).toList()));
+
+        // the selected samples alone cover the same
+        AntlrCoverageTracker selectionTracker = new AntlrCoverageTracker();
+        Set<String> selectedFeatures = new HashSet<>();
+        for (SampleExpression sample : selected) {
+            Set<String> features = selectionTracker.track(sample.expression());
+            selectedFeatures.addAll(features);
+            assertEquals(sample.invalid(), features.stream().anyMatch(feature -> feature.startsWith(AntlrCoverageTracker.ERROR_PREFIX)));
+        }
+        assertEquals(selector.getCoveredFeatures(), selectedFeatures);
+        assertEquals(tracker.getUncoveredRules(), selectionTracker.getUncoveredRules());
+        assertEquals(tracker.getUncoveredCallSites(), selectionTracker.getUncoveredCallSites());
+
+        // the templates cannot reach these alternatives, no matter the fan-out
+        assertEquals(RULES_NOT_COVERED_BY_TEMPLATES, tracker.getUncoveredRules());
+        LOGGER.warn("Rules not covered by the templates: {}, call sites: {}", tracker.getUncoveredRules(), tracker.getUncoveredCallSites());
+
+        // but they are reachable, fuzzed expressions close the gap
+        List<SampleExpression> additional = selector.selectAdditional(new AtnExpressionFuzzer(3, 40).stream(4711, 1_000));
+
+        LOGGER.info("Coverage after {} additional samples: {}", additional.size(), tracker.createReport());
+
+        assertTrue(additional.size() < 100);
+        assertEquals(Set.of(), tracker.getUncoveredRules());
+        assertEquals(Set.of(), tracker.getUncoveredCallSites());
+        for (SampleExpression sample : additional) {
+            selectedFeatures.addAll(selectionTracker.track(sample.expression()));
+        }
+        assertEquals(selector.getCoveredFeatures(), selectedFeatures);
+        assertEquals(Set.of(), selectionTracker.getUncoveredCallSites());
+
+    }
+
+}
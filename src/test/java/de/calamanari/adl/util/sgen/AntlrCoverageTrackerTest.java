@@ -0,0 +1,73 @@
+//@formatter:off
+/*
+ * AntlrCoverageTrackerTest
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import de.calamanari.adl.AdlException;
+import de.calamanari.adl.antlr.AudlangLexer;
+import de.calamanari.adl.antlr.AudlangParser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+class AntlrCoverageTrackerTest {
+
+    @Test
+    void testTrack() {
+
+        AntlrCoverageTracker tracker = new AntlrCoverageTracker();
+
+        Set<String> features = tracker.track("color = red");
+        assertTrue(features.contains(AntlrCoverageTracker.RULE_PREFIX + "query"));
+        assertTrue(features.stream().anyMatch(feature -> feature.startsWith(AntlrCoverageTracker.CALL_PREFIX)));
+        assertTrue(features.stream().anyMatch(feature -> feature.startsWith(AntlrCoverageTracker.TOKEN_PREFIX)));
+        assertFalse(features.stream().anyMatch(feature -> feature.startsWith(AntlrCoverageTracker.ERROR_PREFIX)));
+
+        Set<String> errorFeatures = tracker.track("color = ");
+        assertFalse(errorFeatures.isEmpty());
+        assertTrue(errorFeatures.stream().allMatch(feature -> feature.startsWith(AntlrCoverageTracker.ERROR_PREFIX)));
+
+        tracker.track("color = blue");
+        assertEquals(2L, tracker.getFeatureCounts().get(AntlrCoverageTracker.RULE_PREFIX + "query"));
+
+        assertFalse(tracker.getUncoveredRules().isEmpty());
+        assertTrue(tracker.allRuleFeatures().containsAll(tracker.getUncoveredRules()));
+        assertTrue(tracker.allCallSiteFeatures().containsAll(tracker.getUncoveredCallSites()));
+        assertFalse(tracker.getUncoveredRules().contains(AntlrCoverageTracker.RULE_PREFIX + "query"));
+
+        SampleExpression sample = new SampleExpression("id", "label", "a = 1 AND b = 2");
+        assertTrue(tracker.createCoverageProbe().apply(sample).contains(AntlrCoverageTracker.RULE_PREFIX + "query"));
+
+    }
+
+    @Test
+    void testBadSetup() {
+        assertThrows(AdlException.class, () -> new AntlrCoverageTracker(AudlangLexer.class, AudlangParser.class, "unknownRule"));
+    }
+
+}
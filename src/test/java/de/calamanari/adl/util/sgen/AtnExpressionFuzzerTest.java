@@ -0,0 +1,137 @@
+//@formatter:off
+/*
+ * AtnExpressionFuzzerTest
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import de.calamanari.adl.antlr.AudlangLexer;
+import de.calamanari.adl.antlr.AudlangParser;
+import de.calamanari.adl.util.AntlrTestHelper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+class AtnExpressionFuzzerTest {
+
+    private final AntlrTestHelper testHelper = new AntlrTestHelper(AudlangLexer.class, AudlangParser.class, "query");
+
+    @Test
+    void testValidAndMutatedSamples() {
+
+        List<SampleExpression> samples = new AtnExpressionFuzzer(3, 40).stream(4711, 300).toList();
+
+        assertEquals(600, samples.size());
+
+        int invalidCount = 0;
+        for (int idx = 0; idx < samples.size(); idx = idx + 2) {
+            SampleExpression validSample = samples.get(idx);
+            SampleExpression mutatedSample = samples.get(idx + 1);
+
+            assertFalse(validSample.invalid());
+            assertFalse(testHelper.parse(validSample.expression()).isError());
+            // list parentheses cannot be avoided
+            assertTrue(StressCorpusStatistics.nestingDepth(validSample.expression()) <= 4);
+
+            assertTrue(mutatedSample.id().startsWith(validSample.id() + "_"));
+            assertEquals(mutatedSample.invalid(), testHelper.parse(mutatedSample.expression()).isError());
+            invalidCount = invalidCount + (mutatedSample.invalid() ? 1 : 0);
+        }
+
+        // most mutations break the expression but not all
+        assertTrue(invalidCount > 150);
+        assertTrue(invalidCount < 300);
+
+    }
+
+    @Test
+    void testLimits() {
+
+        List<SampleExpression> smallSamples = new AtnExpressionFuzzer(0, 1).stream(4711, 200).filter(Predicate.not(SampleExpression::invalid)).toList();
+        List<SampleExpression> largeSamples = new AtnExpressionFuzzer(6, 200).stream(4711, 200).filter(Predicate.not(SampleExpression::invalid)).toList();
+
+        assertTrue(smallSamples.stream().allMatch(sample -> StressCorpusStatistics.nestingDepth(sample.expression()) <= 1));
+        assertTrue(largeSamples.stream().anyMatch(sample -> StressCorpusStatistics.nestingDepth(sample.expression()) > 1));
+        assertTrue(totalLength(smallSamples) * 2 < totalLength(largeSamples));
+
+        assertThrows(IllegalArgumentException.class, () -> new AtnExpressionFuzzer(-1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AtnExpressionFuzzer(3, 0));
+
+    }
+
+    @Test
+    void testDeterministicInParallel() {
+
+        AtnExpressionFuzzer fuzzer = new AtnExpressionFuzzer(4, 60);
+
+        List<String> expected = fuzzer.stream(17, 100).map(AtnExpressionFuzzerTest::describe).toList();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(expected, pool.submit(() -> fuzzer.stream(17, 100).parallel().map(AtnExpressionFuzzerTest::describe).toList()).join());
+        }
+        finally {
+            pool.shutdown();
+        }
+
+        List<SampleExpressionGroup> groups = fuzzer.createGroups("fuzz", 17, 100);
+        assertEquals("fuzz-valid", groups.get(0).group());
+        assertEquals("fuzz-mutated", groups.get(1).group());
+        assertEquals(expected.stream().filter(description -> expected.indexOf(description) % 2 == 0).toList(),
+                groups.get(0).samples().stream().map(AtnExpressionFuzzerTest::describe).toList());
+        assertEquals(expected.stream().filter(description -> expected.indexOf(description) % 2 == 1).toList(),
+                groups.get(1).samples().stream().map(AtnExpressionFuzzerTest::describe).toList());
+
+    }
+
+    @Test
+    void testValidityMatchesCorpus() throws IOException {
+
+        List<SampleExpressionGroup> templateGroups = SampleExpressionUtils.readSampleGroupsFromJsonResource("/samples/sample-expressions-template.json");
+
+        List<SampleExpression> samples = SampleExpressionUtils.generateSamples(templateGroups).stream().filter(Predicate.not(SampleExpressionGroup::skip))
+                .flatMap(group -> group.samples().stream()).filter(Predicate.not(SampleExpression::skip))
+                .filter(sample -> sample.expression().length() < 500).toList();
+
+        for (int idx = 0; idx < samples.size(); idx = idx + 20) {
+            SampleExpression sample = samples.get(idx);
+            assertEquals(!sample.invalid(), AtnExpressionFuzzer.isValidExpression(sample.expression()), sample.expression());
+        }
+
+    }
+
+    private static String describe(SampleExpression sample) {
+        return sample.id() + "|" + sample.label() + "|" + sample.invalid() + "|" + sample.expression();
+    }
+
+    private static long totalLength(List<SampleExpression> samples) {
+        return samples.stream().mapToLong(sample -> sample.expression().length()).sum();
+    }
+
+}
@@ -0,0 +1,140 @@
+//@formatter:off
+/*
+ * CoverageGuidedSampleSelectorTest
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+class CoverageGuidedSampleSelectorTest {
+
+    // the words of an expression as a simple replacement for grammar coverage
+    private static final Function<SampleExpression, Set<String>> WORD_PROBE = sample -> Arrays.stream(sample.expression().split("\\s+"))
+            .map(word -> (sample.invalid() ? "invalid:" : "") + word).collect(Collectors.toSet());
+
+    @Test
+    void testSelection() throws IOException {
+
+        List<SampleExpressionGroup> templateGroups = SampleExpressionUtils.readSampleGroupsFromJsonResource("/samples/sample-expressions-template.json");
+        GenInstructionPlan plan = new InstructionPlanCreator().createPlan(templateGroups, SeedStrategy.FAST);
+
+        List<SampleExpression> corpus = new InstructionPlanExecutor().generate(plan).toList();
+        Set<String> corpusFeatures = corpus.stream().flatMap(sample -> WORD_PROBE.apply(sample).stream()).collect(Collectors.toSet());
+
+        CoverageGuidedSampleSelector singleRoundSelector = new CoverageGuidedSampleSelector(plan, WORD_PROBE);
+        List<SampleExpressionGroup> selectedGroups = singleRoundSelector.select(1);
+        List<SampleExpression> selected = selectedGroups.stream().flatMap(group -> group.samples().stream()).toList();
+
+        assertEquals(corpus.size(), singleRoundSelector.getGeneratedSampleCount());
+        assertEquals(corpusFeatures, singleRoundSelector.getCoveredFeatures());
+        assertEquals(corpusFeatures, selected.stream().flatMap(sample -> WORD_PROBE.apply(sample).stream()).collect(Collectors.toSet()));
+        assertTrue(selected.size() < corpus.size());
+
+        // selection keeps the order and the groups
+        assertEquals(corpus.stream().filter(new HashSet<>(selected)::contains).distinct().toList(), selected);
+        for (SampleExpressionGroup group : selectedGroups) {
+            assertTrue(group.samples().stream().allMatch(sample -> group.group().equals(sample.generationInfo().group)));
+        }
+
+        CoverageGuidedSampleSelector selector = new CoverageGuidedSampleSelector(plan, WORD_PROBE);
+        selector.select(3);
+        assertTrue(selector.getGeneratedSampleCount() > corpus.size());
+        assertTrue(selector.getCoveredFeatures().containsAll(corpusFeatures));
+        assertTrue(selector.getCoveredFeatures().size() > corpusFeatures.size());
+
+    }
+
+    @Test
+    void testSelectAdditional() throws IOException {
+
+        List<SampleExpressionGroup> templateGroups = SampleExpressionUtils.readSampleGroupsFromJsonResource("/samples/sample-expressions-template.json");
+        GenInstructionPlan plan = new InstructionPlanCreator().createPlan(templateGroups, SeedStrategy.FAST);
+
+        CoverageGuidedSampleSelector selector = new CoverageGuidedSampleSelector(plan, WORD_PROBE);
+        selector.select(1);
+        long generatedSampleCount = selector.getGeneratedSampleCount();
+
+        SampleExpression known = new InstructionPlanExecutor().generate(plan).findFirst().orElseThrow();
+        SampleExpression unknown = new SampleExpression("b", "unknown", "flavor = \"raspberry ripple\"", false);
+        SampleExpression unknownAgain = new SampleExpression("c", "unknown again", "flavor = \"raspberry ripple\"", false);
+
+        assertEquals(List.of(unknown), selector.selectAdditional(Stream.of(known, unknown, unknownAgain)));
+        assertEquals(generatedSampleCount + 3, selector.getGeneratedSampleCount());
+        assertTrue(selector.getCoveredFeatures().containsAll(WORD_PROBE.apply(unknown)));
+        assertEquals(List.of(), selector.selectAdditional(Stream.of(unknown)));
+
+    }
+
+    @Test
+    void testFanOutOfTemplatesBecomingProductiveAgain() {
+
+        int originalLimit = GenerationSettings.DEFAULT_VARIATION_COUNT_LIMIT;
+
+        GenInstructionPlan plan = new InstructionPlanCreator().createPlan(List.of(), SeedStrategy.FAST);
+        CoverageGuidedSampleSelector selector = new CoverageGuidedSampleSelector(plan, WORD_PROBE);
+
+        GenerationSettings settings = selector.createNextRoundSettings(plan.generationSettings(), Set.of("a", "b"), 1);
+        assertEquals(2 * originalLimit, settings.variationCountLimit("a"));
+        assertEquals(2 * originalLimit, settings.variationCountLimit("b"));
+        assertEquals(0, settings.variationCountLimit("c"));
+
+        // a gets reduced, b keeps doubling
+        settings = selector.createNextRoundSettings(settings, Set.of("b"), 2);
+        assertEquals(0, settings.variationCountLimit("a"));
+        assertEquals(4 * originalLimit, settings.variationCountLimit("b"));
+
+        // a and c restart from the original limit, not from the reduced one
+        settings = selector.createNextRoundSettings(settings, Set.of("a", "b", "c"), 3);
+        assertEquals(2 * originalLimit, settings.variationCountLimit("a"));
+        assertEquals(8 * originalLimit, settings.variationCountLimit("b"));
+        assertEquals(2 * originalLimit, settings.variationCountLimit("c"));
+        assertEquals(plan.generationSettings().seedSalt() + 3, settings.seedSalt());
+
+    }
+
+    @Test
+    void testSpecialCases() {
+
+        GenInstructionPlan plan = new InstructionPlanCreator().createPlan(List.of(), SeedStrategy.FAST);
+
+        CoverageGuidedSampleSelector selector = new CoverageGuidedSampleSelector(plan, WORD_PROBE);
+        assertEquals(List.of(), selector.select(5));
+        assertEquals(0, selector.getGeneratedSampleCount());
+
+        assertThrows(IllegalArgumentException.class, () -> selector.select(0));
+        assertThrows(IllegalArgumentException.class, () -> new CoverageGuidedSampleSelector(plan, null));
+
+    }
+
+}
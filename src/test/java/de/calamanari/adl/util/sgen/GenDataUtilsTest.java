@@ -20,12 +20,15 @@
 package de.calamanari.adl.util.sgen;
 
 import java.util.Random;
+import java.util.SplittableRandom;
 
 import org.junit.jupiter.api.Test;
 
 import de.calamanari.adl.AdlException;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
@@ -73,6 +76,43 @@ class GenDataUtilsTest {
 
     }
 
+    @Test
+    void testFastHash() {
+
+        assertEquals(GenDataUtils.fastHashLong("id", "a=1"), GenDataUtils.fastHashLong("id", "a=1"));
+        assertEquals(GenDataUtils.fastHashLong("id", null), GenDataUtils.fastHashLong("id", ""));
+        assertNotEquals(GenDataUtils.fastHashLong("id", "a=1"), GenDataUtils.fastHashLong("id", "a=2"));
+        assertNotEquals(GenDataUtils.fastHashLong("ab", "c"), GenDataUtils.fastHashLong("a", "bc"));
+        assertNotEquals(GenDataUtils.fastHashLong("id", ""), GenDataUtils.fastHashLong("", "id"));
+
+    }
+
+    @Test
+    void testSeedStrategy() {
+
+        SampleExpression expression = new SampleExpression("id", "label", "a=1");
+
+        assertEquals(GenDataUtils.createRandomWithSeed("ida=1").nextInt(10_000), GenDataUtils.createRandomGenerator(expression).nextInt(10_000));
+
+        assertEquals(GenDataUtils.createRandomWithSeed("ida=1").nextInt(10_000),
+                (int) GenDataUtils.callWithSeedStrategy(SeedStrategy.SHA1, () -> GenDataUtils.createRandomGenerator(expression).nextInt(10_000)));
+
+        assertEquals(GenDataUtils.createRandomWithSeed("ida=1").nextInt(10_000),
+                (int) GenDataUtils.callWithSeedStrategy(null, () -> GenDataUtils.createRandomGenerator(expression).nextInt(10_000)));
+
+        int[] fastValues = GenDataUtils.callWithSeedStrategy(SeedStrategy.FAST,
+                () -> GenDataUtils.createRandomGenerator(expression).ints(5, 0, 10_000).toArray());
+
+        assertArrayEquals(fastValues, SeedStrategy.FAST.createRandom("id", "a=1").ints(5, 0, 10_000).toArray());
+        assertArrayEquals(fastValues, new SplittableRandom(GenDataUtils.fastHashLong("id", "a=1")).ints(5, 0, 10_000).toArray());
+
+        // strategy is reset after the call
+        assertEquals(GenDataUtils.createRandomWithSeed("ida=1").nextInt(10_000), GenDataUtils.createRandomGenerator(expression).nextInt(10_000));
+
+        GenDataUtils.cleanup();
+
+    }
+
     @Test
     void testSpecialCases() {
         assertThrows(AdlException.class, () -> GenDataUtils.getSha1MessageDigestInstance("fooBar"));
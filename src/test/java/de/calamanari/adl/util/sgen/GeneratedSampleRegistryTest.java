@@ -0,0 +1,94 @@
+//@formatter:off
+/*
+ * GeneratedSampleRegistryTest
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+class GeneratedSampleRegistryTest {
+
+    @Test
+    void testLookupsMatchLinearFilters() throws IOException {
+
+        List<SampleExpressionGroup> templateGroups = SampleExpressionUtils.readSampleGroupsFromJsonResource("/samples/sample-expressions-template.json");
+
+        List<SampleExpression> samples = SampleExpressionUtils.generateSamples(templateGroups).stream().flatMap(group -> group.samples().stream()).toList();
+
+        GeneratedSampleRegistry registry = new GeneratedSampleRegistry();
+        registry.addAll(samples);
+
+        assertEquals(samples, registry);
+
+        List<SampleExpression> plainList = new ArrayList<>(samples);
+
+        assertSameResult(new ReuseOpaqueExpressionInstruction().filter, plainList, registry);
+        assertSameResult(new ReuseCompositeExpressionInstruction().filter, plainList, registry);
+
+        for (SampleExpressionGroup templateGroup : templateGroups) {
+            assertSameResult(new IdFilterReuseExpressionInstruction(templateGroup.group()).filter, plainList, registry);
+            for (SampleExpression template : templateGroup.samples()) {
+                assertSameResult(new IdFilterReuseExpressionInstruction(template.id()).filter, plainList, registry);
+            }
+        }
+
+        assertEquals(Collections.emptyList(), new IdFilterReuseExpressionInstruction("unknown").filter.apply(registry));
+
+    }
+
+    @Test
+    void testSpecialCases() {
+
+        GeneratedSampleRegistry registry = new GeneratedSampleRegistry();
+
+        SampleExpression sample = new SampleExpression("noSuffix", "label", "a = 1");
+        registry.add(sample);
+        assertNull(registry.findFirstValidSampleByTemplateId("noSuffix"));
+        assertEquals(Collections.emptyList(), registry.getValidCompositeSamples());
+        assertSame(sample, registry.getValidOpaqueSamples().get(0));
+
+        SampleExpression invalidSample = new SampleExpression("tpl_1", "label", "a = ", true);
+        registry.add(invalidSample);
+        assertNull(registry.findFirstValidSampleByTemplateId("tpl"));
+        assertEquals(1, registry.getValidOpaqueSamples().size());
+        assertEquals(2, registry.size());
+
+        assertThrows(UnsupportedOperationException.class, () -> registry.add(0, sample));
+        assertThrows(UnsupportedOperationException.class, () -> registry.remove(0));
+
+    }
+
+    private static void assertSameResult(UnaryOperator<List<SampleExpression>> filter, List<SampleExpression> plainList, GeneratedSampleRegistry registry) {
+        assertEquals(filter.apply(plainList), filter.apply(registry));
+    }
+
+}
@@ -0,0 +1,92 @@
+//@formatter:off
+/*
+ * ParallelInstructionPlanExecutorTest
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+class ParallelInstructionPlanExecutorTest {
+
+    @Test
+    void testDependencies() {
+
+        List<SampleExpressionGroup> templateGroups = Arrays.asList(
+                new SampleExpressionGroup("group1", Arrays.asList(new SampleExpression("tpl1", "label", "${ARG_NAME}~${OP}~${ARG_VALUE}"))),
+                new SampleExpressionGroup("group2", Arrays.asList(new SampleExpression("tpl2", "label", "${ARG_NAME} ${IS} ${UNKNOWN}"))),
+                new SampleExpressionGroup("group3", Arrays.asList(new SampleExpression("tpl3", "label", "${EXPRESSION:tpl1}_${AND}_${EXPRESSION:tpl2}"))),
+                new SampleExpressionGroup("group4", Arrays.asList(new SampleExpression("tpl4", "label", "${EXPRESSION*:group2}"))),
+                new SampleExpressionGroup("group5", Arrays.asList(new SampleExpression("tpl5", "label", "${OPAQUE_EXPRESSION}_${OR}_${ALL}"))));
+
+        GenInstructionPlan plan = new InstructionPlanCreator().createPlan(templateGroups);
+
+        List<List<Integer>> dependencies = ParallelInstructionPlanExecutor.resolveDependencies(plan.groups());
+
+        assertEquals(Collections.emptyList(), dependencies.get(0));
+        assertEquals(Collections.emptyList(), dependencies.get(1));
+        assertEquals(Arrays.asList(0, 1), dependencies.get(2));
+        assertEquals(Arrays.asList(1), dependencies.get(3));
+        assertEquals(Arrays.asList(0, 1, 2, 3), dependencies.get(4));
+
+        assertEquals(toJson(new InstructionPlanExecutor().execute(new InstructionPlanCreator().createPlan(templateGroups))),
+                toJson(new ParallelInstructionPlanExecutor().execute(plan)));
+
+    }
+
+    @Test
+    void testSameOutputAsSequential() throws IOException {
+
+        List<SampleExpressionGroup> templateGroups = SampleExpressionUtils.readSampleGroupsFromJsonResource("/samples/sample-expressions-template.json");
+
+        List<SampleExpressionGroup> expected = new InstructionPlanExecutor().execute(new InstructionPlanCreator().createPlan(templateGroups));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<SampleExpressionGroup> actual = new ParallelInstructionPlanExecutor(pool).execute(new InstructionPlanCreator().createPlan(templateGroups));
+            assertEquals(toJson(expected), toJson(actual));
+        }
+        finally {
+            pool.shutdown();
+        }
+
+    }
+
+    @Test
+    void testSpecialCases() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelInstructionPlanExecutor(null));
+
+        assertEquals(Collections.emptyList(), new ParallelInstructionPlanExecutor().execute(new InstructionPlanCreator().createPlan(null)));
+    }
+
+    private static List<String> toJson(List<SampleExpressionGroup> groups) {
+        return groups.stream().map(SampleExpressionGroup::toJson).toList();
+    }
+
+}
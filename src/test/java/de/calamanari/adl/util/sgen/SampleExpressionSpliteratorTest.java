@@ -0,0 +1,123 @@
+//@formatter:off
+/*
+ * SampleExpressionSpliteratorTest
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+class SampleExpressionSpliteratorTest {
+
+    @Test
+    void testSameOutputAsExecute() throws IOException {
+
+        List<SampleExpressionGroup> templateGroups = SampleExpressionUtils.readSampleGroupsFromJsonResource("/samples/sample-expressions-template.json");
+
+        // sample ids contain a hash over the expression text
+        List<SampleExpression> expected = new InstructionPlanExecutor().execute(new InstructionPlanCreator().createPlan(templateGroups)).stream()
+                .flatMap(group -> group.samples().stream()).toList();
+
+        assertEquals(expected, SampleExpressionUtils.streamSamples(templateGroups, SeedStrategy.SHA1).toList());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<SampleExpression> actual = pool.submit(() -> SampleExpressionUtils.streamSamples(templateGroups, SeedStrategy.SHA1).parallel().toList())
+                    .join();
+            assertEquals(expected, actual);
+        }
+        finally {
+            pool.shutdown();
+        }
+
+    }
+
+    @Test
+    void testLazyGeneration() throws IOException {
+
+        List<SampleExpressionGroup> templateGroups = SampleExpressionUtils.readSampleGroupsFromJsonResource("/samples/sample-expressions-template.json");
+
+        List<SampleExpression> expected = SampleExpressionUtils.generateSamples(templateGroups, false, SeedStrategy.FAST).stream()
+                .flatMap(group -> group.samples().stream()).limit(7).toList();
+
+        assertEquals(toJson(expected.stream()), toJson(SampleExpressionUtils.streamSamples(templateGroups, SeedStrategy.FAST).limit(7)));
+
+    }
+
+    @Test
+    void testSplit() {
+
+        List<SampleExpressionGroup> templateGroups = Arrays.asList(
+                new SampleExpressionGroup("group1", Arrays.asList(new SampleExpression("tpl1", "label", "${ARG_NAME}~${OP}~${ARG_VALUE}"))),
+                new SampleExpressionGroup("group2", Arrays.asList(new SampleExpression("tpl2", "label", "${ARG_NAME} ${IS} ${UNKNOWN}"))),
+                new SampleExpressionGroup("group3", Arrays.asList(new SampleExpression("tpl3", "label", "${EXPRESSION:tpl2}_${AND}_${ARG_NAME} = 1"))));
+
+        List<SampleExpressionGroup> expected = new InstructionPlanExecutor().execute(new InstructionPlanCreator().createPlan(templateGroups));
+
+        SampleExpressionSpliterator spliterator = new SampleExpressionSpliterator(new InstructionPlanCreator().createPlan(templateGroups));
+
+        Spliterator<SampleExpression> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+
+        // group3 depends on group2
+        assertNull(spliterator.trySplit());
+
+        List<SampleExpression> prefixSamples = new ArrayList<>();
+        prefix.forEachRemaining(prefixSamples::add);
+        List<SampleExpression> remainingSamples = new ArrayList<>();
+        spliterator.forEachRemaining(remainingSamples::add);
+
+        assertEquals(toJson(expected.get(0).samples().stream()), toJson(prefixSamples.stream()));
+        assertEquals(toJson(Stream.concat(expected.get(1).samples().stream(), expected.get(2).samples().stream())), toJson(remainingSamples.stream()));
+        assertFalse(remainingSamples.isEmpty());
+        assertTrue(remainingSamples.stream().noneMatch(SampleExpression::skip));
+
+        assertFalse(spliterator.tryAdvance(_ -> {
+            // no more samples
+        }));
+        assertNull(spliterator.trySplit());
+
+    }
+
+    @Test
+    void testSpecialCases() {
+        assertEquals(Collections.emptyList(), new InstructionPlanExecutor().generate(new InstructionPlanCreator().createPlan(null)).toList());
+    }
+
+    private static List<String> toJson(Stream<SampleExpression> samples) {
+        return samples.map(SampleExpression::toJson).toList();
+    }
+
+}
@@ -28,6 +28,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -49,6 +50,27 @@ class SampleExpressionUtilsTest {
 
     }
 
+    @Test
+    void testGenerateSamplesWithSeedStrategy() throws IOException {
+
+        List<SampleExpressionGroup> templateGroups = SampleExpressionUtils.readSampleGroupsFromJsonResource("/samples/sample-expressions-template.json");
+
+        List<String> expected = toJson(SampleExpressionUtils.generateSamples(templateGroups, false, SeedStrategy.FAST));
+
+        assertEquals(expected, toJson(SampleExpressionUtils.generateSamples(templateGroups, false, SeedStrategy.FAST)));
+        assertEquals(expected, toJson(SampleExpressionUtils.generateSamples(templateGroups, true, SeedStrategy.FAST)));
+
+        assertEquals(toJson(SampleExpressionUtils.generateSamples(templateGroups)),
+                toJson(SampleExpressionUtils.generateSamples(templateGroups, true, SeedStrategy.SHA1)));
+
+        assertNotEquals(expected, toJson(SampleExpressionUtils.generateSamples(templateGroups)));
+
+    }
+
+    private static List<String> toJson(List<SampleExpressionGroup> groups) {
+        return groups.stream().map(SampleExpressionGroup::toJson).toList();
+    }
+
     @Test
     void testSpecials() throws IOException {
 
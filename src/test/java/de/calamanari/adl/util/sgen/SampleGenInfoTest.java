@@ -19,21 +19,32 @@
 
 package de.calamanari.adl.util.sgen;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.calamanari.adl.util.JsonUtils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
  */
 class SampleGenInfoTest {
 
+    static final Logger LOGGER = LoggerFactory.getLogger(SampleGenInfoTest.class);
+
     @Test
     void testBasics() {
 
@@ -106,6 +117,126 @@ class SampleGenInfoTest {
 
     }
 
+    @Test
+    void testCopyOnWrite() {
+
+        SampleGenInfo info = new SampleGenInfo("group1");
+        info.setArgNames(new ArrayList<>(Arrays.asList("a", "b")));
+        info.setArgValues(new ArrayList<>(Arrays.asList("1")));
+
+        SampleGenInfo info2 = info.copy();
+        info2.getArgNames().add("c");
+        info2.getComments();
+        info2.incrementCntAnd();
+
+        SampleGenInfo info3 = info2.copy();
+        info3.getArgValues().add("2");
+        info3.setComments(new ArrayList<>(Arrays.asList("c1")));
+
+        assertEquals(Arrays.asList("a", "b"), info.getArgNames());
+        assertEquals(Arrays.asList("1"), info.getArgValues());
+        assertEquals(0, info.getCntAnd());
+
+        assertEquals(Arrays.asList("a", "b", "c"), info2.getArgNames());
+        assertEquals(Arrays.asList("1"), info2.getArgValues());
+        assertNull(info2.getComments());
+        assertEquals(1, info2.getCntAnd());
+
+        assertEquals(Arrays.asList("a", "b", "c"), info3.getArgNames());
+        assertEquals(Arrays.asList("1", "2"), info3.getArgValues());
+        assertEquals(Arrays.asList("c1"), info3.getComments());
+        assertEquals(1, info3.getCntAnd());
+        assertEquals("group1", info3.group);
+
+        SampleGenInfo sum = info.combine(info3);
+
+        assertEquals(Arrays.asList("a", "b", "a", "b", "c"), sum.getArgNames());
+        assertEquals(Arrays.asList("1", "1", "2"), sum.getArgValues());
+        assertEquals(Arrays.asList("c1"), sum.getComments());
+        assertEquals(1, sum.getCntAnd());
+
+        assertEquals(Arrays.asList("a", "b"), info.getArgNames());
+        assertEquals(Arrays.asList("a", "b", "c"), info3.getArgNames());
+        assertEquals(info3.toString(), jsonRoundTrip(info3).toString());
+
+    }
+
+    @Test
+    void testCopyLeavesSourceUntouched() {
+
+        SampleGenInfo info = new SampleGenInfo("group1");
+        info.addArgName("a");
+        info.addComment("c1");
+
+        SampleGenInfo info2 = info.copy();
+        SampleGenInfo info3 = info2.copy();
+        SampleGenInfo info4 = info2.copy();
+
+        // reading (including serialization) and copying must not modify a shared instance
+        List<String> sharedArgNames = info2.getArgNames();
+        assertEquals(info2.toString(), jsonRoundTrip(info2).toString());
+
+        info.addArgName("b");
+        info3.addArgName("c");
+        info4.getArgNames().set(0, "x");
+        info4.getComments().clear();
+
+        assertEquals(Arrays.asList("a", "b"), info.getArgNames());
+        assertEquals(Arrays.asList("a"), info2.getArgNames());
+        assertEquals(Arrays.asList("a"), sharedArgNames);
+        assertEquals(Arrays.asList("a", "c"), info3.getArgNames());
+        assertEquals(Arrays.asList("x"), info4.getArgNames());
+
+        assertEquals(Arrays.asList("c1"), info.getComments());
+        assertEquals(Arrays.asList("c1"), info2.getComments());
+        assertEquals(Arrays.asList("c1"), info3.getComments());
+        assertEquals(Collections.emptyList(), info4.getComments());
+
+        SampleGenInfo sum = info2.combine(info3);
+        assertEquals(Arrays.asList("a", "a", "c"), sum.getArgNames());
+        assertEquals(Arrays.asList("a"), info2.getArgNames());
+
+    }
+
+    @Test
+    @Disabled("throughput check, run manually")
+    void testCopyThroughput() throws IOException {
+
+        List<SampleExpressionGroup> templateGroups = SampleExpressionUtils.readSampleGroupsFromJsonResource("/samples/sample-expressions-template.json");
+
+        // warm-up
+        List<SampleGenInfo> infos = SampleExpressionUtils.generateSamples(templateGroups).stream().flatMap(group -> group.samples().stream())
+                .map(SampleExpression::generationInfo).toList();
+        int sampleCount = infos.size();
+
+        int rounds = 5;
+        long startTimeNanos = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            SampleExpressionUtils.generateSamples(templateGroups);
+        }
+        long generationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeNanos) / rounds;
+
+        // copy() compared to the JSON round-trip it replaced
+        infos = infos.subList(0, 200);
+        startTimeNanos = System.nanoTime();
+        infos.forEach(SampleGenInfo::copy);
+        long copyNanos = System.nanoTime() - startTimeNanos;
+
+        startTimeNanos = System.nanoTime();
+        infos.forEach(SampleGenInfoTest::jsonRoundTrip);
+        long jsonRoundTripNanos = System.nanoTime() - startTimeNanos;
+
+        LOGGER.info("Generating {} samples took {} ms (average of {} rounds), copying {} infos took {} ms (JSON round-trip: {} ms)", sampleCount,
+                generationMillis, rounds, infos.size(), TimeUnit.NANOSECONDS.toMillis(copyNanos), TimeUnit.NANOSECONDS.toMillis(jsonRoundTripNanos));
+
+        assertTrue(copyNanos * 10 < jsonRoundTripNanos);
+
+    }
+
+    private static SampleGenInfo jsonRoundTrip(SampleGenInfo info) {
+        return JsonUtils.readFromJsonString(JsonUtils.writeAsJsonString(info, false), SampleGenInfo.class);
+    }
+
     private void assertInfoExpectedInitially(SampleGenInfo info) {
 
         assertEquals(Arrays.asList("a", "b"), info.getArgNames());
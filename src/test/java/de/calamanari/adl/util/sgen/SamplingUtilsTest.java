@@ -0,0 +1,127 @@
+//@formatter:off
+/*
+ * SamplingUtilsTest
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+class SamplingUtilsTest {
+
+    @Test
+    void testPickUnique() {
+
+        List<Integer> candidates = IntStream.range(0, 100).boxed().toList();
+
+        List<Integer> picked = SamplingUtils.pickUnique(candidates, 10, new SplittableRandom(4711));
+        assertEquals(10, picked.size());
+        assertEquals(10, new HashSet<>(picked).size());
+        assertEquals(picked, SamplingUtils.pickUnique(candidates, 10, new SplittableRandom(4711)));
+
+        List<Integer> all = SamplingUtils.pickUnique(candidates, 99, new SplittableRandom(4711));
+        assertEquals(99, new HashSet<>(all).size());
+
+        assertSame(candidates, SamplingUtils.pickUnique(candidates, 100, new SplittableRandom(4711)));
+        assertEquals(Collections.emptyList(), SamplingUtils.pickUnique(candidates, 0, new SplittableRandom(4711)));
+
+        // every candidate must be reachable
+        HashSet<Integer> seen = new HashSet<>();
+        SplittableRandom rand = new SplittableRandom(4711);
+        for (int i = 0; i < 1_000; i++) {
+            seen.addAll(SamplingUtils.pickUnique(candidates, 3, rand));
+        }
+        assertEquals(100, seen.size());
+
+    }
+
+    @Test
+    void testShuffle() {
+
+        List<Integer> candidates = IntStream.range(0, 100).boxed().toList();
+
+        List<Integer> shuffled = SamplingUtils.shuffle(candidates, new SplittableRandom(4711));
+        assertEquals(candidates, shuffled.stream().sorted().toList());
+        assertEquals(shuffled, SamplingUtils.shuffle(candidates, new SplittableRandom(4711)));
+
+        assertEquals(Collections.emptyList(), SamplingUtils.shuffle(Collections.emptyList(), new SplittableRandom(4711)));
+
+    }
+
+    @Test
+    void testCompatibleSampling() {
+
+        // duplicates make a difference for the original algorithms
+        List<String> candidates = Arrays.asList("a", "b", "c", "a", "d", "e", "b", "f");
+
+        for (int seed = 0; seed < 500; seed++) {
+            for (int count = 1; count < candidates.size(); count++) {
+                assertEquals(legacyPickUnique(candidates, count, new Random(seed)), SamplingUtils.pickUniqueCompatible(candidates, count, new Random(seed)));
+            }
+            assertEquals(legacyShuffle(candidates, new Random(seed)), SamplingUtils.shuffleCompatible(candidates, new Random(seed)));
+        }
+
+        assertSame(candidates, SamplingUtils.pickUniqueCompatible(candidates, 8, new Random(4711)));
+        assertEquals(Arrays.asList("x"), SamplingUtils.shuffleCompatible(Arrays.asList("x"), new Random(4711)));
+
+    }
+
+    private static List<String> legacyPickUnique(List<String> candidates, int max, Random rand) {
+        List<String> res = new ArrayList<>();
+        List<String> available = new ArrayList<>(candidates);
+        for (int i = 0; i < max; i++) {
+            String value = available.get(rand.nextInt(available.size()));
+            res.add(value);
+            available.remove(value);
+        }
+        return res;
+    }
+
+    private static List<String> legacyShuffle(List<String> candidates, Random rand) {
+        List<String> res = new ArrayList<>();
+        List<String> available = new ArrayList<>(candidates);
+        for (int i = 0; i < candidates.size() + 1; i++) {
+            if (available.size() == 1) {
+                res.add(available.get(0));
+                break;
+            }
+            else {
+                String[] patterns = available.toArray(new String[0]);
+                String value = patterns[rand.nextInt(patterns.length - 1) + 1];
+                res.add(value);
+                available.remove(value);
+            }
+        }
+        return res;
+    }
+
+}
@@ -0,0 +1,188 @@
+//@formatter:off
+/*
+ * StressCorpusGeneratorTest
+ * Copyright 2024 Karl Eilebrecht
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"):
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+//@formatter:on
+
+package de.calamanari.adl.util.sgen;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.calamanari.adl.util.JsonUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="mailto:Karl.Eilebrecht(a/t)calamanari.de">Karl Eilebrecht</a>
+ */
+class StressCorpusGeneratorTest {
+
+    private static List<SampleExpressionGroup> templateGroups;
+
+    @BeforeAll
+    static void loadTemplates() throws IOException {
+        templateGroups = SampleExpressionUtils.readSampleGroupsFromJsonResource("/samples/sample-expressions-template.json");
+    }
+
+    @Test
+    void testSampleCountTarget() {
+
+        List<SampleExpression> expected = SampleExpressionUtils.streamSamples(templateGroups, SeedStrategy.SHA1).toList();
+
+        List<SampleExpression> samples = new ArrayList<>();
+        StressCorpusStatistics statistics = new StressCorpusGenerator(templateGroups, SeedStrategy.SHA1, null).generate(expected.size() + 100, 0, samples::add);
+
+        assertEquals(expected.size() + 100, statistics.getSampleCount());
+        assertEquals(samples.size(), statistics.getSampleCount());
+
+        // the first round is the regular corpus, the next one continues with different random decisions
+        assertEquals(expected, samples.subList(0, expected.size()));
+        assertNotEquals(expected.subList(0, 100), samples.subList(expected.size(), samples.size()));
+
+        assertEquals(samples.stream().filter(SampleExpression::invalid).count(), statistics.getInvalidSampleCount());
+        assertEquals(samples.stream().mapToInt(sample -> sample.expression().length()).max().getAsInt(), statistics.getMaxExpressionLength());
+        assertEquals(statistics.getSampleCount(), statistics.getLengthHistogram().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(statistics.getSampleCount(), statistics.getNestingDepthHistogram().values().stream().mapToLong(Long::longValue).sum());
+
+    }
+
+    @Test
+    void testByteTargetAndJsonLinesSink() throws IOException {
+
+        StringWriter writer = new StringWriter();
+        StressCorpusStatistics statistics = new StressCorpusGenerator(templateGroups, SeedStrategy.FAST, null).generate(0, 10_000,
+                StressCorpusGenerator.createJsonLinesSink(writer));
+
+        assertTrue(statistics.getByteCount() >= 10_000);
+
+        String[] lines = writer.toString().split("\n");
+        assertEquals(statistics.getSampleCount(), lines.length);
+
+        ObjectMapper objectMapper = JsonUtils.createObjectMapper();
+        long byteCount = 0;
+        for (String line : lines) {
+            byteCount += StressCorpusStatistics.utf8Length(objectMapper.readValue(line, SampleExpression.class).expression());
+        }
+        assertEquals(statistics.getByteCount(), byteCount);
+
+    }
+
+    @Test
+    void testVariationCountLimits() {
+
+        GenInstructionPlan plan = new InstructionPlanCreator().createPlan(templateGroups, SeedStrategy.FAST, new GenerationSettings(0, null, 5, 10_000, 0));
+        Map<String, Long> defaultCounts = new InstructionPlanExecutor().generate(plan.withGenerationSettings(null))
+                .collect(Collectors.groupingBy(sample -> String.valueOf(GeneratedSampleRegistry.templateIdOf(sample)), Collectors.counting()));
+        long defaultCount = defaultCounts.values().stream().mapToLong(Long::longValue).sum();
+
+        // template with the most variations
+        String templateId = defaultCounts.entrySet().stream().max(Map.Entry.comparingByValue()).orElseThrow().getKey();
+        long defaultTemplateCount = defaultCounts.get(templateId);
+
+        long minimumCount = new InstructionPlanExecutor().generate(plan).count();
+        assertTrue(minimumCount < defaultCount);
+        assertTrue(countSamplesOfTemplate(plan, templateId) < defaultTemplateCount);
+
+        Map<String, Integer> templateVariationCountLimits = new HashMap<>();
+        templateVariationCountLimits.put(templateId, GenerationSettings.DEFAULT_VARIATION_COUNT_LIMIT);
+        plan = plan.withGenerationSettings(new GenerationSettings(0, templateVariationCountLimits, 5, 10_000, 0));
+
+        assertEquals(defaultTemplateCount, countSamplesOfTemplate(plan, templateId));
+        assertTrue(new InstructionPlanExecutor().generate(plan).count() > minimumCount);
+
+    }
+
+    private static long countSamplesOfTemplate(GenInstructionPlan plan, String templateId) {
+        return new InstructionPlanExecutor().generate(plan).filter(sample -> templateId.equals(GeneratedSampleRegistry.templateIdOf(sample))).count();
+    }
+
+    @Test
+    void testMaxListSize() {
+
+        GenerationSettings settings = new GenerationSettings(GenerationSettings.DEFAULT_VARIATION_COUNT_LIMIT, null, 50, 10_000, 0);
+        StressCorpusStatistics statistics = new StressCorpusGenerator(templateGroups, SeedStrategy.FAST, settings).generate(5_000, 0, _ -> {});
+
+        StressCorpusStatistics defaultStatistics = new StressCorpusGenerator(templateGroups, SeedStrategy.FAST, null).generate(5_000, 0, _ -> {});
+
+        assertTrue(statistics.getByteCount() > defaultStatistics.getByteCount());
+
+    }
+
+    @Test
+    void testUnlimitedOutputLimit() {
+
+        List<Integer> outputLimits = new ArrayList<>();
+        TemplateInstruction recorder = (inputExpression, outputLimit) -> {
+            outputLimits.add(outputLimit);
+            return List.of(inputExpression);
+        };
+        TemplateInstruction unlimited = new OutputLimitOverrideTemplateInstruction(recorder);
+        SampleExpression expression = new SampleExpression("id", "label", "");
+
+        unlimited.apply(expression);
+        GenerationSettings settings = new GenerationSettings(GenerationSettings.DEFAULT_VARIATION_COUNT_LIMIT, null, 5, 1_000_000, 0);
+        GenDataUtils.callWithSettings(null, settings, () -> unlimited.apply(expression));
+        GenDataUtils.callWithSettings(null, settings, () -> unlimited.apply(expression, 7));
+
+        assertEquals(List.of(GenerationSettings.DEFAULT_UNLIMITED_OUTPUT_LIMIT, 1_000_000, 7), outputLimits);
+
+        // an explicit limit is never replaced by the settings
+        outputLimits.clear();
+        TemplateInstruction explicit = new OutputLimitOverrideTemplateInstruction(recorder, Integer.MAX_VALUE);
+        explicit.apply(expression);
+        GenDataUtils.callWithSettings(null, settings, () -> explicit.apply(expression));
+        assertEquals(List.of(Integer.MAX_VALUE, Integer.MAX_VALUE), outputLimits);
+
+        TemplateInstruction parsed = new TemplateInstructionParser().parse("${ALL*}").get(0);
+        assertEquals(GenerationSettings.DEFAULT_UNLIMITED_OUTPUT_LIMIT, parsed.getDefaultOutputLimit());
+        assertEquals(1_000_000, (int) GenDataUtils.callWithSettings(null, settings, parsed::getDefaultOutputLimit));
+
+    }
+
+    @Test
+    void testFigures() {
+
+        assertEquals(0, StressCorpusStatistics.nestingDepth("color = red"));
+        assertEquals(2, StressCorpusStatistics.nestingDepth("(a = 1 OR (b = 2)) AND c ANY OF (1, 2)"));
+        assertEquals(1, StressCorpusStatistics.nestingDepth("(a = \"((\"\"(\") /* (( */"));
+
+        assertEquals(0, StressCorpusStatistics.utf8Length(""));
+        assertEquals("aä€😀".getBytes(StandardCharsets.UTF_8).length, StressCorpusStatistics.utf8Length("aä€😀"));
+
+        StressCorpusGenerator generator = new StressCorpusGenerator(templateGroups, null, null);
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(0, 0, _ -> {}));
+        assertThrows(IllegalArgumentException.class, () -> new GenerationSettings(-1, null, 5, 10_000, 0));
+        assertThrows(IllegalArgumentException.class, () -> new GenerationSettings(50, null, 0, 10_000, 0));
+        assertThrows(IllegalArgumentException.class, () -> new GenerationSettings(50, null, 5, 0, 0));
+
+    }
+
+}